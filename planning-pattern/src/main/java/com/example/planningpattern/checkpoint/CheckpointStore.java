@@ -0,0 +1,224 @@
+package com.example.planningpattern.checkpoint;
+
+import com.example.planningpattern.model.TaskPlan;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable local store of task plans and their per-step results.
+ * <p>
+ * Each plan gets a directory named after its id, holding {@code plan.json} with the plan definition and one
+ * {@code step-<n>.json} per executed step. Every file is written to a temporary file and then atomically moved
+ * into place, so a crash never leaves a partially written checkpoint. Steps running in parallel write separate
+ * files and never contend.
+ * <p>
+ * A background sweep deletes the directories of plans that have not been written to for longer than the
+ * retention period, so the store does not grow with every plan ever generated.
+ */
+@Component
+public class CheckpointStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointStore.class);
+    private static final String PLAN_FILE = "plan.json";
+    private static final String STEP_FILE_PREFIX = "step-";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Duration retention;
+    private final ScheduledExecutorService sweeper;
+
+    public CheckpointStore(ObjectMapper objectMapper,
+                           @Value("${planning.checkpoints.dir:checkpoints}") String directory,
+                           @Value("${planning.checkpoints.retention:P7D}") Duration retention) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+        this.retention = retention;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "plan-checkpoint-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!retention.isZero() && !retention.isNegative()) {
+            long sweepMillis = Math.max(1000, retention.toMillis() / 4);
+            sweeper.scheduleWithFixedDelay(this::removeExpiredQuietly, sweepMillis, sweepMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Store the definition of a plan
+     *
+     * @param plan The plan
+     */
+    public void savePlan(TaskPlan plan) {
+        write(planDirectory(plan.getId()).resolve(PLAN_FILE), PlanSnapshot.of(plan));
+    }
+
+    /**
+     * Load the definition of a plan
+     *
+     * @param planId The plan id
+     * @return The plan with every step pending, or null if the plan is not stored
+     */
+    public TaskPlan loadPlan(String planId) {
+        Path file = planDirectory(planId).resolve(PLAN_FILE);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), PlanSnapshot.class).toPlan();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read plan " + planId, e);
+        }
+    }
+
+    /**
+     * Store the outcome of a step, replacing any earlier checkpoint of the step
+     *
+     * @param planId The plan id
+     * @param checkpoint The checkpoint
+     */
+    public void saveStep(String planId, StepCheckpoint checkpoint) {
+        write(planDirectory(planId).resolve(STEP_FILE_PREFIX + checkpoint.step() + ".json"), checkpoint);
+    }
+
+    /**
+     * Load the checkpoints of a plan's steps
+     *
+     * @param planId The plan id
+     * @return The checkpoints by step number; steps never executed are absent
+     */
+    public Map<Integer, StepCheckpoint> loadSteps(String planId) {
+        Map<Integer, StepCheckpoint> checkpoints = new HashMap<>();
+        Path planDirectory = planDirectory(planId);
+        if (!Files.isDirectory(planDirectory)) {
+            return checkpoints;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(planDirectory, STEP_FILE_PREFIX + "*.json")) {
+            for (Path file : files) {
+                StepCheckpoint checkpoint = objectMapper.readValue(file.toFile(), StepCheckpoint.class);
+                checkpoints.put(checkpoint.step(), checkpoint);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoints of plan " + planId, e);
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Delete every checkpoint of a plan. A plan that cannot be deleted is logged and left to the retention sweep.
+     *
+     * @param planId The plan id
+     */
+    public void deletePlan(String planId) {
+        Path planDirectory = planDirectory(planId);
+        if (!Files.isDirectory(planDirectory)) {
+            return;
+        }
+        try {
+            deletePlanDirectory(planDirectory);
+        } catch (IOException e) {
+            logger.warn("Failed to delete the checkpoints of plan {}", planId, e);
+        }
+    }
+
+    /**
+     * Delete the checkpoints of plans that have not been written to within the retention period
+     *
+     * @return The number of plans deleted
+     * @throws IOException If the checkpoint directory cannot be read or a plan cannot be deleted
+     */
+    public int removeExpired() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(retention));
+        int removed = 0;
+        try (DirectoryStream<Path> plans = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path plan : plans) {
+                if (lastWritten(plan).compareTo(cutoff) < 0) {
+                    deletePlanDirectory(plan);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private void removeExpiredQuietly() {
+        try {
+            removeExpired();
+        } catch (IOException | RuntimeException e) {
+            // Expired checkpoints stay until the next run
+            logger.warn("Failed to remove expired plan checkpoints from {}", directory, e);
+        }
+    }
+
+    /**
+     * The newest modification time of the plan directory and its files; step files are rewritten on every attempt
+     */
+    private static FileTime lastWritten(Path planDirectory) throws IOException {
+        FileTime newest = Files.getLastModifiedTime(planDirectory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(planDirectory)) {
+            for (Path file : files) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.compareTo(newest) > 0) {
+                    newest = modified;
+                }
+            }
+        }
+        return newest;
+    }
+
+    private static void deletePlanDirectory(Path planDirectory) throws IOException {
+        // Plan directories are flat: the plan, its steps and possibly a leftover temporary file
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(planDirectory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(planDirectory);
+    }
+
+    private Path planDirectory(String planId) {
+        Path planDirectory = directory.resolve(planId).normalize();
+        if (!planDirectory.startsWith(directory.normalize()) || planDirectory.equals(directory.normalize())) {
+            throw new IllegalArgumentException("Invalid plan id: " + planId);
+        }
+        return planDirectory;
+    }
+
+    private void write(Path file, Object value) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temporary.toFile(), value);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write checkpoint " + file, e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.planningpattern.checkpoint;
+
+import com.example.planningpattern.model.PlanStep;
+import com.example.planningpattern.model.TaskPlan;
+
+import java.util.List;
+
+/**
+ * The stored definition of a task plan, so it can be resumed after a restart
+ *
+ * @param id The plan id
+ * @param goal The goal
+ * @param steps The steps
+ */
+public record PlanSnapshot(String id, String goal, List<Step> steps) {
+
+    static PlanSnapshot of(TaskPlan plan) {
+        return new PlanSnapshot(plan.getId(), plan.getGoal(), plan.getSteps().stream()
+                .map(step -> new Step(step.getNumber(), step.getDescription(), step.getDependsOn()))
+                .toList());
+    }
+
+    TaskPlan toPlan() {
+        return new TaskPlan(id, goal, steps.stream()
+                .map(step -> new PlanStep(step.number(), step.description(), step.dependsOn()))
+                .toList());
+    }
+
+    /**
+     * A stored step
+     *
+     * @param number The step number
+     * @param description What the step does
+     * @param dependsOn Numbers of the steps it depends on
+     */
+    public record Step(int number, String description, List<Integer> dependsOn) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.planningpattern.checkpoint;
+
+import com.example.planningpattern.model.StepStatus;
+
+/**
+ * The stored outcome of a plan step
+ *
+ * @param step The step number
+ * @param status COMPLETED or FAILED
+ * @param result The step result, or null if the step failed
+ * @param error The error of the last attempt, or null if the step completed
+ * @param attempts Attempts made so far, over all executions of the plan
+ * @param updatedAtMillis When the checkpoint was written, in epoch milliseconds
+ */
+public record StepCheckpoint(int step, StepStatus status, String result, String error, int attempts,
+                             long updatedAtMillis) {
+}
@@ -0,0 +1,26 @@
+package com.example.planningpattern.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared infrastructure for the Planning Pattern services
+ */
+@Configuration
+public class PlanningConfig {
+
+    /**
+     * Executor used to run plan steps concurrently.
+     * Step execution is dominated by blocking LLM calls, so each step gets its own virtual thread;
+     * concurrency per plan is bounded by the executing service.
+     *
+     * @return A virtual-thread-per-task executor
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService planExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
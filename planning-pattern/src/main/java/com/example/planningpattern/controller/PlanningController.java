@@ -1,14 +1,29 @@
 package com.example.planningpattern.controller;
 
+import com.example.planningpattern.model.PlanJob;
+import com.example.planningpattern.model.StepResult;
 import com.example.planningpattern.model.TaskPlan;
+import com.example.planningpattern.service.PlanExecution;
+import com.example.planningpattern.service.PlanJobService;
 import com.example.planningpattern.service.PlannerService;
 import com.example.planningpattern.service.TaskExecutionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Controller for the Planning Pattern API
@@ -19,10 +34,18 @@ public class PlanningController {
 
     private final PlannerService plannerService;
     private final TaskExecutionService taskExecutionService;
+    private final PlanJobService planJobService;
+    private final ExecutorService planExecutor;
+    private final long streamTimeoutMs;
 
-    public PlanningController(PlannerService plannerService, TaskExecutionService taskExecutionService) {
+    public PlanningController(PlannerService plannerService, TaskExecutionService taskExecutionService,
+                              PlanJobService planJobService, ExecutorService planExecutor,
+                              @Value("${planning.stream.timeout-ms:300000}") long streamTimeoutMs) {
         this.plannerService = plannerService;
         this.taskExecutionService = taskExecutionService;
+        this.planJobService = planJobService;
+        this.planExecutor = planExecutor;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
 
     /**
@@ -79,7 +102,8 @@ public class PlanningController {
      * Execute all steps in a task plan
      * 
      * @param goal The goal of the task plan to execute
-     * @return The execution results for each step
+     * @return The execution results for each step, 404 if no plan is stored for the goal,
+     *         or 409 if the plan is already being executed
      */
     @PostMapping("/execute-plan")
     public ResponseEntity<Map<String, Object>> executeFullPlan(@RequestParam String goal) {
@@ -88,14 +112,219 @@ public class PlanningController {
             return ResponseEntity.notFound().build();
         }
         
-        List<String> results = taskExecutionService.executeFullPlan(goal);
+        List<String> results;
+        try {
+            results = taskExecutionService.executeFullPlan(goal);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
         
+        return ResponseEntity.ok(executionResponse(plan, results));
+    }
+    
+    /**
+     * Resume a task plan by id, e.g. after a step failed on every attempt or the application was restarted.
+     * Steps completed by an earlier execution are not executed again.
+     * 
+     * @param planId The id of the task plan
+     * @return The execution results for each step, 400 if the id is not a valid plan id, 404 if no plan is stored
+     *         under the id, or 409 if the plan is already being executed
+     */
+    @PostMapping("/plans/{planId}/resume")
+    public ResponseEntity<Map<String, Object>> resumePlan(@PathVariable String planId) {
+        TaskPlan plan;
+        try {
+            plan = taskExecutionService.getPlanById(planId);
+        } catch (IllegalArgumentException e) {
+            // The id does not name a directory inside the checkpoint store, e.g. ".."
+            return ResponseEntity.badRequest().build();
+        }
+        if (plan == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        List<String> results;
+        try {
+            results = taskExecutionService.resumePlan(planId);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        
+        return ResponseEntity.ok(executionResponse(plan, results));
+    }
+    
+    /**
+     * Generate a task plan and execute it at the same time, streaming progress as server-sent events.
+     * Each step is dispatched as soon as the planner has written it, so planning and execution overlap.
+     * A "step" event is sent for each planned step, a "result" event as each step finishes, a "plan" event
+     * once planning is done, and a final "complete" event with all results.
+     * 
+     * @param goal The goal to create a plan for
+     * @return An emitter that streams planning and execution
+     */
+    @GetMapping(value = "/plan-and-execute", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter planAndExecute(@RequestParam String goal) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        String planId = UUID.randomUUID().toString();
+        PlanExecution execution = taskExecutionService.newExecution(planId, (step, result) ->
+                send(emitter, "result", new StepResult(step.getNumber(), step.getDescription(), result)));
+        // A stream that times out or breaks stops the steps not yet started, and planning with its next send
+        emitter.onTimeout(execution::cancel);
+        emitter.onError(error -> execution.cancel());
+        emitter.onCompletion(execution::cancel);
+        planExecutor.execute(() -> {
+            // A new id is always free; the reservation keeps the plan from being resumed while it still runs here
+            TaskExecutionService.Reservation reservation = taskExecutionService.reserve(planId);
+            try {
+                TaskPlan plan = plannerService.streamPlan(planId, goal, step -> {
+                    send(emitter, "step", step);
+                    execution.submit(step);
+                });
+                taskExecutionService.storePlan(plan);
+                send(emitter, "plan", plan);
+                
+                List<String> results = execution.awaitResults();
+                send(emitter, "complete", executionResponse(plan, results));
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // Also reached when the client disconnects, which stops planning and the steps not yet started
+                execution.cancel();
+                // The plan stays reserved until the steps already running have finished
+                execution.awaitTermination();
+                // Steps that ran before planning failed would otherwise be left without their plan
+                taskExecutionService.discardUnstoredPlan(planId);
+                emitter.completeWithError(e);
+            } finally {
+                taskExecutionService.release(reservation);
+            }
+        });
+        return emitter;
+    }
+    
+    /**
+     * Submit a stored task plan for asynchronous execution
+     * 
+     * @param goal The goal of the task plan to execute
+     * @return 202 with the queued job and its URL in the Location header, 404 if no plan is stored for the goal,
+     *         409 if the plan is being executed outside of a job, or 429 if too many jobs are waiting.
+     *         If the plan already has a queued or running job, that job is returned.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<PlanJob> submitJob(@RequestParam String goal) {
+        if (taskExecutionService.getPlan(goal) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            PlanJob job = planJobService.submit(goal);
+            return ResponseEntity.accepted().header("Location", "/api/planning/jobs/" + job.getId()).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+    }
+    
+    /**
+     * Get all plan execution jobs
+     * 
+     * @return The jobs, most recent first
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<PlanJob>> getJobs() {
+        return ResponseEntity.ok(planJobService.getJobs());
+    }
+    
+    /**
+     * Get the status and partial results of a job
+     * 
+     * @param jobId The job id
+     * @return The job, or 404 if not found
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<PlanJob> getJob(@PathVariable String jobId) {
+        PlanJob job = planJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+    
+    /**
+     * Subscribe to a job's progress as server-sent events: a "progress" event with the job after every change,
+     * and a final "complete" event once it has finished
+     * 
+     * @param jobId The job id
+     * @return An emitter that streams the job's progress, or 404 if not found
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToJob(@PathVariable String jobId) {
+        PlanJob job = planJobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AtomicBoolean completed = new AtomicBoolean();
+        Consumer<PlanJob> listener = changed -> {
+            if (changed.getState().isFinished()) {
+                if (completed.compareAndSet(false, true)) {
+                    send(emitter, "complete", changed);
+                    emitter.complete();
+                }
+            } else if (!completed.get()) {
+                send(emitter, "progress", changed);
+            }
+        };
+        emitter.onCompletion(() -> job.removeListener(listener));
+        emitter.onTimeout(() -> job.removeListener(listener));
+        
+        job.addListener(listener);
+        // Send the current state, which also completes the stream if the job finished before the subscription
+        try {
+            listener.accept(job);
+        } catch (RuntimeException e) {
+            job.removeListener(listener);
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
+    /**
+     * Cancel a job
+     * 
+     * @param jobId The job id
+     * @return The job, or 404 if not found
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<PlanJob> cancelJob(@PathVariable String jobId) {
+        PlanJob job = planJobService.cancel(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+    
+    private static Map<String, Object> executionResponse(TaskPlan plan, List<String> results) {
         Map<String, Object> response = new HashMap<>();
-        response.put("goal", goal);
+        response.put("id", plan.getId());
+        response.put("goal", plan.getGoal());
         response.put("steps", plan.getSteps());
         response.put("results", results);
+        response.put("stepStatuses", plan.getStepStatuses());
         response.put("completed", plan.isCompleted());
-        
-        return ResponseEntity.ok(response);
+        return response;
+    }
+    
+    /**
+     * Send an event; steps finish on different threads, so sends are serialized
+     */
+    private static void send(SseEmitter emitter, String name, Object data) {
+        synchronized (emitter) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(data));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 }
@@ -0,0 +1,21 @@
+package com.example.planningpattern.model;
+
+/**
+ * Lifecycle state of a plan execution job
+ */
+public enum JobState {
+    /** Waiting for a free execution slot */
+    QUEUED,
+    /** Steps are being executed */
+    RUNNING,
+    /** All steps finished */
+    SUCCEEDED,
+    /** A step failed; the remaining steps were not executed */
+    FAILED,
+    /** Cancelled by the client */
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
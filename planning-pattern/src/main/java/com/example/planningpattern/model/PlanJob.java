@@ -0,0 +1,170 @@
+package com.example.planningpattern.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * An asynchronous execution of a task plan, with its progress and the results of the steps finished so far.
+ * Updated by the executing threads and read by clients polling or subscribing to it.
+ */
+public class PlanJob {
+    private final String id;
+    private final String goal;
+    private final int totalSteps;
+    private final Instant createdAt;
+    private final List<StepResult> results = new ArrayList<>();
+    private final List<Consumer<PlanJob>> listeners = new CopyOnWriteArrayList<>();
+    private JobState state = JobState.QUEUED;
+    private String error;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    public PlanJob(String id, String goal, int totalSteps) {
+        this.id = id;
+        this.goal = goal;
+        this.totalSteps = totalSteps;
+        this.createdAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getGoal() {
+        return goal;
+    }
+
+    public int getTotalSteps() {
+        return totalSteps;
+    }
+
+    public synchronized int getCompletedSteps() {
+        return results.size();
+    }
+
+    /**
+     * @return The results of the steps finished so far, in the order they finished
+     */
+    public synchronized List<StepResult> getResults() {
+        return List.copyOf(results);
+    }
+
+    public synchronized JobState getState() {
+        return state;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Register a listener called after every change of the job. It is called on the thread that made the change;
+     * a listener that throws is removed.
+     * 
+     * @param listener The listener
+     */
+    public void addListener(Consumer<PlanJob> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<PlanJob> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Mark the job as running, unless it was cancelled while queued
+     * 
+     * @return Whether the job is now running
+     */
+    public boolean start() {
+        synchronized (this) {
+            if (state != JobState.QUEUED) {
+                return false;
+            }
+            state = JobState.RUNNING;
+            startedAt = Instant.now();
+        }
+        notifyListeners();
+        return true;
+    }
+
+    /**
+     * Record the result of a finished step, unless the job has already finished
+     * 
+     * @param result The step result
+     */
+    public void addResult(StepResult result) {
+        synchronized (this) {
+            if (state.isFinished()) {
+                return;
+            }
+            results.add(result);
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Move the job to a final state, unless it is already in one
+     * 
+     * @param finalState SUCCEEDED, FAILED or CANCELLED
+     * @param error The error message, or null
+     * @return Whether the state changed
+     */
+    public boolean finish(JobState finalState, String error) {
+        synchronized (this) {
+            if (state.isFinished()) {
+                return false;
+            }
+            state = finalState;
+            this.error = error;
+            finishedAt = Instant.now();
+        }
+        notifyListeners();
+        return true;
+    }
+
+    /**
+     * Cancel the job, unless it has already finished
+     * 
+     * @return The state the job was in, QUEUED or RUNNING, or null if it had already finished
+     */
+    public JobState cancel() {
+        JobState previous;
+        synchronized (this) {
+            if (state.isFinished()) {
+                return null;
+            }
+            previous = state;
+            state = JobState.CANCELLED;
+            finishedAt = Instant.now();
+        }
+        notifyListeners();
+        return previous;
+    }
+
+    private void notifyListeners() {
+        for (Consumer<PlanJob> listener : listeners) {
+            try {
+                listener.accept(this);
+            } catch (RuntimeException e) {
+                // A failing listener, e.g. a disconnected subscriber, is dropped without affecting the job
+                listeners.remove(listener);
+            }
+        }
+    }
+}
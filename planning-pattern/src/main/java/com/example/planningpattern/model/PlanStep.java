@@ -0,0 +1,40 @@
+package com.example.planningpattern.model;
+
+import java.util.List;
+
+/**
+ * A step of a task plan, together with the steps it depends on
+ */
+public class PlanStep {
+    private final int number;
+    private final String description;
+    private final List<Integer> dependsOn;
+
+    /**
+     * @param number The step number, starting at 1
+     * @param description What the step does
+     * @param dependsOn Numbers of the earlier steps that must finish before this one starts
+     */
+    public PlanStep(int number, String description, List<Integer> dependsOn) {
+        this.number = number;
+        this.description = description;
+        this.dependsOn = List.copyOf(dependsOn);
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<Integer> getDependsOn() {
+        return dependsOn;
+    }
+
+    @Override
+    public String toString() {
+        return dependsOn.isEmpty() ? description : description + " (depends on: " + dependsOn + ")";
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.planningpattern.model;
+
+/**
+ * The result of executing one step of a task plan
+ */
+public class StepResult {
+    private final int step;
+    private final String description;
+    private final String result;
+
+    public StepResult(int step, String description, String result) {
+        this.step = step;
+        this.description = description;
+        this.result = result;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.planningpattern.model;
+
+/**
+ * Execution status of a single plan step
+ */
+public enum StepStatus {
+    /** Not executed yet */
+    PENDING,
+    /** Being executed, possibly after failed attempts */
+    RUNNING,
+    /** Executed successfully; the result is checkpointed and the step is skipped when the plan is resumed */
+    COMPLETED,
+    /** Failed on every attempt; executed again when the plan is resumed */
+    FAILED
+}
@@ -1,35 +1,90 @@
 package com.example.planningpattern.model;
 
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Represents a task plan generated by the planner
+ * Represents a task plan generated by the planner.
+ * The steps form a directed acyclic graph: each step depends only on steps with lower numbers.
+ * Each step has its own execution status, keyed by step number.
  */
 public class TaskPlan {
+    private final String id;
     private final String goal;
-    private final List<String> steps;
-    private boolean completed;
+    private final List<PlanStep> steps;
+    private final Map<Integer, StepStatus> stepStatuses = new ConcurrentHashMap<>();
 
-    public TaskPlan(String goal, List<String> steps) {
+    public TaskPlan(String goal, List<PlanStep> steps) {
+        this(UUID.randomUUID().toString(), goal, steps);
+    }
+
+    public TaskPlan(String id, String goal, List<PlanStep> steps) {
+        this.id = id;
         this.goal = goal;
         this.steps = steps;
-        this.completed = false;
+    }
+
+    /**
+     * @return The id under which the plan and its step results are checkpointed
+     */
+    public String getId() {
+        return id;
     }
 
     public String getGoal() {
         return goal;
     }
 
-    public List<String> getSteps() {
+    public List<PlanStep> getSteps() {
         return steps;
     }
 
-    public boolean isCompleted() {
-        return completed;
+    /**
+     * Get the number of steps on the longest chain of dependencies, the lower bound of the plan's latency
+     * in step executions when independent steps run concurrently
+     * 
+     * @return The length of the critical path
+     */
+    public int getCriticalPathLength() {
+        int[] depth = new int[steps.size()];
+        int longest = 0;
+        for (int i = 0; i < steps.size(); i++) {
+            for (int dependency : steps.get(i).getDependsOn()) {
+                depth[i] = Math.max(depth[i], depth[dependency - 1]);
+            }
+            depth[i]++;
+            longest = Math.max(longest, depth[i]);
+        }
+        return longest;
+    }
+
+    /**
+     * @return The status of every step, by step number
+     */
+    public Map<Integer, StepStatus> getStepStatuses() {
+        Map<Integer, StepStatus> statuses = new TreeMap<>();
+        for (PlanStep step : steps) {
+            statuses.put(step.getNumber(), getStepStatus(step.getNumber()));
+        }
+        return statuses;
+    }
+
+    public StepStatus getStepStatus(int step) {
+        return stepStatuses.getOrDefault(step, StepStatus.PENDING);
     }
 
-    public void setCompleted(boolean completed) {
-        this.completed = completed;
+    public void setStepStatus(int step, StepStatus status) {
+        stepStatuses.put(step, status);
+    }
+
+    /**
+     * @return Whether every step has completed
+     */
+    public boolean isCompleted() {
+        return steps.stream().allMatch(step -> getStepStatus(step.getNumber()) == StepStatus.COMPLETED);
     }
 
     @Override
@@ -37,10 +92,11 @@ public class TaskPlan {
         StringBuilder sb = new StringBuilder();
         sb.append("Task Plan for: ").append(goal).append("\n");
         sb.append("Steps:\n");
-        for (int i = 0; i < steps.size(); i++) {
-            sb.append(i + 1).append(". ").append(steps.get(i)).append("\n");
+        for (PlanStep step : steps) {
+            sb.append(step.getNumber()).append(". ").append(step)
+                    .append(" [").append(getStepStatus(step.getNumber())).append("]\n");
         }
-        sb.append("Status: ").append(completed ? "Completed" : "Not Completed");
+        sb.append("Status: ").append(isCompleted() ? "Completed" : "Not Completed");
         return sb.toString();
     }
 }
@@ -0,0 +1,278 @@
+package com.example.planningpattern.service;
+
+import com.example.planningpattern.model.PlanStep;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * One execution of a task plan whose steps can be submitted while the plan is still being generated.
+ * <p>
+ * Each submitted step starts as soon as the steps it depends on have finished, so independent steps run
+ * concurrently, bounded by a number of permits. Steps must be submitted in order, which is always possible because
+ * a step only depends on steps with lower numbers. A failing step is retried with exponential backoff; it holds no
+ * permit while it waits.
+ * <p>
+ * Cancelling a future does not stop the thread computing it, so the execution counts the steps in flight itself.
+ * {@link #awaitResults()} and {@link #awaitTermination()} return only once none is left, which lets callers release
+ * the plan without a step of this execution still calling the model or writing its checkpoint.
+ */
+public class PlanExecution {
+
+    private final Function<PlanStep, String> stepExecutor;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Listener listener;
+    private final List<CompletableFuture<String>> futures = new ArrayList<>();
+    private volatile boolean cancelled;
+    // Steps that have entered run() and not yet left it; guarded by this
+    private int inFlight;
+
+    /**
+     * @param stepExecutor Executes a single step and returns its result
+     * @param executor Executor the steps run on
+     * @param maxParallelism Maximum number of steps running at the same time
+     * @param maxAttempts Maximum number of attempts per step, 1 for no retries
+     * @param initialBackoff Wait before the first retry; doubled before each further retry
+     * @param listener Notified as steps start, finish and fail
+     */
+    public PlanExecution(Function<PlanStep, String> stepExecutor, Executor executor, int maxParallelism,
+                         int maxAttempts, Duration initialBackoff, Listener listener) {
+        this.stepExecutor = stepExecutor;
+        this.executor = executor;
+        this.permits = new Semaphore(maxParallelism);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.listener = listener;
+    }
+
+    /**
+     * Submit the next step of the plan
+     *
+     * @param step The step, numbered one higher than the previously submitted step
+     * @return The result of the step, completed once it has run
+     */
+    public synchronized CompletableFuture<String> submit(PlanStep step) {
+        CompletableFuture<?>[] dependencies = dependencies(step);
+        CompletableFuture<String> future = CompletableFuture.allOf(dependencies)
+                .thenApplyAsync(ignored -> run(step), executor);
+        futures.add(future);
+        return future;
+    }
+
+    /**
+     * Submit the next step of the plan with a result from an earlier execution; the step is not executed again
+     *
+     * @param step The step, numbered one higher than the previously submitted step
+     * @param result The result of the step
+     */
+    public synchronized void submitCompleted(PlanStep step, String result) {
+        dependencies(step);
+        futures.add(CompletableFuture.completedFuture(result));
+    }
+
+    /**
+     * Wait for every submitted step. If a step fails or the execution is cancelled, the steps that have not started
+     * yet are cancelled, and this waits for the steps still running before it throws.
+     *
+     * @return The results of the steps, in step order
+     */
+    public List<String> awaitResults() {
+        List<CompletableFuture<String>> submitted;
+        synchronized (this) {
+            submitted = List.copyOf(futures);
+        }
+        try {
+            return submitted.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            // Also stops the steps that are already scheduled but still waiting for a permit
+            cancel();
+            // Unrelated steps may still be running; they must checkpoint before the plan can be resumed
+            awaitTermination();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (CancellationException e) {
+            cancel();
+            awaitTermination();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait until no step of the execution is running. Once the execution is cancelled, no further step starts,
+     * so the wait ends when the steps that were already running have finished.
+     */
+    public synchronized void awaitTermination() {
+        boolean interrupted = false;
+        while (inFlight > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                // Returning early would let another execution of the plan start beside the running steps
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Cancel the execution without waiting. Steps that have not started yet never will; steps already running
+     * finish, but their results are discarded. Use {@link #awaitTermination()} to wait for them.
+     */
+    public void cancel() {
+        List<CompletableFuture<String>> submitted;
+        synchronized (this) {
+            // Set under the lock, so no step can enter run() after awaitTermination() has seen it idle
+            cancelled = true;
+            submitted = List.copyOf(futures);
+        }
+        submitted.forEach(future -> future.cancel(true));
+    }
+
+    /**
+     * @return Whether the execution was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private CompletableFuture<?>[] dependencies(PlanStep step) {
+        if (step.getNumber() != futures.size() + 1) {
+            throw new IllegalArgumentException("Expected step " + (futures.size() + 1) + " but got " + step.getNumber());
+        }
+        return step.getDependsOn().stream()
+                .map(number -> futures.get(number - 1))
+                .toArray(CompletableFuture[]::new);
+    }
+
+    private String run(PlanStep step) {
+        synchronized (this) {
+            if (cancelled) {
+                // Scheduled before the cancellation but never started; nothing to undo
+                throw new CancellationException("Plan execution was cancelled before step " + step.getNumber());
+            }
+            inFlight++;
+        }
+        try {
+            return runAttempts(step);
+        } finally {
+            synchronized (this) {
+                inFlight--;
+                notifyAll();
+            }
+        }
+    }
+
+    private String runAttempts(PlanStep step) {
+        String result;
+        int attempt = 0;
+        try {
+            while (true) {
+                attempt++;
+                try {
+                    result = executeWithPermit(step);
+                    break;
+                } catch (CancellationException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts || cancelled) {
+                        listener.stepFailed(step, e, attempt);
+                        throw e;
+                    }
+                    backOff(step, attempt);
+                }
+            }
+        } catch (CancellationException e) {
+            // Cancelled while waiting for a permit, for a retry or before starting
+            listener.stepCancelled(step);
+            throw e;
+        }
+        // Outside the retry loop, so a failing listener does not cause the step to be executed again
+        listener.stepFinished(step, result, attempt);
+        return result;
+    }
+
+    private void backOff(PlanStep step, int attempt) {
+        try {
+            Thread.sleep(initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 20)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted before retrying step " + step.getNumber());
+        }
+    }
+
+    private String executeWithPermit(PlanStep step) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted before executing step " + step.getNumber());
+        }
+        try {
+            if (cancelled) {
+                throw new CancellationException("Plan execution was cancelled before step " + step.getNumber());
+            }
+            // Only now, holding a permit, is the step actually running
+            listener.stepStarted(step);
+            return stepExecutor.apply(step);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Receives the progress of an execution; called on the thread that runs the step
+     */
+    public interface Listener {
+
+        /**
+         * Called before each attempt of a step, once it holds a permit
+         *
+         * @param step The step
+         */
+        default void stepStarted(PlanStep step) {
+        }
+
+        /**
+         * Called when a step that had been scheduled stops because the execution was cancelled or interrupted,
+         * before it produced a result
+         *
+         * @param step The step
+         */
+        default void stepCancelled(PlanStep step) {
+        }
+
+        /**
+         * Called when a step has succeeded, before its future completes and dependent steps start
+         *
+         * @param step The step
+         * @param result Its result
+         * @param attempts Number of attempts it took
+         */
+        default void stepFinished(PlanStep step, String result, int attempts) {
+        }
+
+        /**
+         * Called when the last attempt of a step has failed
+         *
+         * @param step The step
+         * @param error The error of the last attempt
+         * @param attempts Number of attempts made
+         */
+        default void stepFailed(PlanStep step, RuntimeException error, int attempts) {
+        }
+    }
+}
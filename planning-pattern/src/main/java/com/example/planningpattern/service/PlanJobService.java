@@ -0,0 +1,217 @@
+package com.example.planningpattern.service;
+
+import com.example.planningpattern.model.JobState;
+import com.example.planningpattern.model.PlanJob;
+import com.example.planningpattern.model.StepResult;
+import com.example.planningpattern.model.TaskPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service that executes task plans as asynchronous jobs.
+ * Submitting a plan returns immediately; the job runs in the background and can be polled, subscribed to or
+ * cancelled. At most {@code planning.jobs.max-concurrent} jobs run at once, so a burst of submissions cannot
+ * exhaust the model provider's rate limit; the others wait in a bounded queue.
+ * <p>
+ * A plan has at most one active job: submitting a plan whose job is still queued or running returns that job.
+ * The plan stays reserved from submission until the job has finished, so it cannot be executed elsewhere
+ * meanwhile. A background sweep drops finished jobs once they are older than the retention period.
+ */
+@Service
+public class PlanJobService implements AutoCloseable {
+
+    private final TaskExecutionService taskExecutionService;
+    private final ExecutorService planExecutor;
+    private final Semaphore runningJobs;
+    private final int maxQueuedJobs;
+    private final Duration retention;
+    private final Map<String, PlanJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, PlanExecution> executions = new ConcurrentHashMap<>();
+    // Queued and running jobs by plan id, with the reservation of the plan each one holds
+    private final Map<String, ActiveJob> activeJobs = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedJobs = new AtomicInteger();
+    private final ScheduledExecutorService sweeper;
+
+    public PlanJobService(TaskExecutionService taskExecutionService, ExecutorService planExecutor,
+                          @Value("${planning.jobs.max-concurrent:2}") int maxConcurrentJobs,
+                          @Value("${planning.jobs.max-queued:100}") int maxQueuedJobs,
+                          @Value("${planning.jobs.retention:PT1H}") Duration retention) {
+        this.taskExecutionService = taskExecutionService;
+        this.planExecutor = planExecutor;
+        this.runningJobs = new Semaphore(maxConcurrentJobs, true);
+        this.maxQueuedJobs = maxQueuedJobs;
+        this.retention = retention;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "plan-job-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1000, retention.toMillis() / 4);
+        sweeper.scheduleWithFixedDelay(this::removeExpiredJobs, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Submit a stored task plan for asynchronous execution
+     * 
+     * @param goal The goal of the task plan to execute
+     * @return The queued job, or the plan's job that is already queued or running
+     * @throws IllegalArgumentException If no plan is stored for the goal
+     * @throws IllegalStateException If the plan is being executed outside of a job
+     * @throws RejectedExecutionException If the queue of waiting jobs is full
+     */
+    public synchronized PlanJob submit(String goal) {
+        TaskPlan plan = taskExecutionService.getPlan(goal);
+        if (plan == null) {
+            throw new IllegalArgumentException("No plan found for goal: " + goal);
+        }
+        ActiveJob active = activeJobs.get(plan.getId());
+        if (active != null && !active.job().getState().isFinished()) {
+            return active.job();
+        }
+        if (queuedJobs.incrementAndGet() > maxQueuedJobs) {
+            queuedJobs.decrementAndGet();
+            throw new RejectedExecutionException("Too many plan jobs waiting; try again later");
+        }
+        TaskExecutionService.Reservation reservation = taskExecutionService.reserve(plan.getId());
+        if (reservation == null) {
+            queuedJobs.decrementAndGet();
+            throw new IllegalStateException("Plan " + plan.getId() + " is already being executed");
+        }
+        
+        PlanJob job = new PlanJob(UUID.randomUUID().toString(), goal, plan.getSteps().size());
+        jobs.put(job.getId(), job);
+        activeJobs.put(plan.getId(), new ActiveJob(job, reservation));
+        planExecutor.execute(() -> run(job, plan));
+        return job;
+    }
+    
+    /**
+     * Get a job by id
+     * 
+     * @param id The job id
+     * @return The job, or null if not found or expired
+     */
+    public PlanJob getJob(String id) {
+        return jobs.get(id);
+    }
+    
+    /**
+     * Get all jobs that have not expired
+     * 
+     * @return The jobs, most recent first
+     */
+    public List<PlanJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(PlanJob::getCreatedAt).reversed())
+                .toList();
+    }
+    
+    /**
+     * Cancel a job. A queued job never starts and gives up its plan right away; a running job starts no further
+     * steps and keeps its plan reserved until the steps already running have finished.
+     * 
+     * @param id The job id
+     * @return The job, or null if not found
+     */
+    public PlanJob cancel(String id) {
+        PlanJob job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        JobState previous = job.cancel();
+        if (previous == JobState.RUNNING) {
+            // The job's own thread releases the plan once the execution has drained
+            PlanExecution execution = executions.get(id);
+            if (execution != null) {
+                execution.cancel();
+            }
+        } else if (previous == JobState.QUEUED) {
+            // Nothing runs for a queued job, so its plan can be executed elsewhere at once
+            activeJobs.values().stream()
+                    .filter(active -> active.job() == job)
+                    .findFirst()
+                    .ifPresent(this::deactivate);
+        }
+        return job;
+    }
+    
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+    
+    private void run(PlanJob job, TaskPlan plan) {
+        try {
+            runningJobs.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queuedJobs.decrementAndGet();
+            job.finish(JobState.FAILED, "Interrupted while queued");
+            deactivate(plan, job);
+            return;
+        }
+        queuedJobs.decrementAndGet();
+        
+        try {
+            if (!job.start()) {
+                // Cancelled while queued
+                return;
+            }
+            // Steps completed by an earlier execution of the plan are reported from their checkpoints, not run again
+            PlanExecution execution = taskExecutionService.startPlan(plan, (step, result) ->
+                    job.addResult(new StepResult(step.getNumber(), step.getDescription(), result)));
+            executions.put(job.getId(), execution);
+            if (job.getState().isFinished()) {
+                // Cancelled between starting and registering the execution
+                execution.cancel();
+            }
+            // Returns or throws only once no step of the execution is running any more
+            execution.awaitResults();
+            job.finish(JobState.SUCCEEDED, null);
+        } catch (CancellationException e) {
+            job.finish(JobState.CANCELLED, null);
+        } catch (RuntimeException e) {
+            job.finish(JobState.FAILED, e.getMessage());
+        } finally {
+            executions.remove(job.getId());
+            deactivate(plan, job);
+            runningJobs.release();
+        }
+    }
+    
+    private void deactivate(TaskPlan plan, PlanJob job) {
+        ActiveJob active = activeJobs.get(plan.getId());
+        if (active != null && active.job() == job) {
+            deactivate(active);
+        }
+    }
+    
+    private void deactivate(ActiveJob active) {
+        activeJobs.remove(active.reservation().getPlanId(), active);
+        taskExecutionService.release(active.reservation());
+    }
+    
+    private void removeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+    
+    private record ActiveJob(PlanJob job, TaskExecutionService.Reservation reservation) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.planningpattern.service;
 
+import com.example.planningpattern.model.PlanStep;
 import com.example.planningpattern.model.TaskPlan;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatResponse;
@@ -9,10 +10,12 @@ import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Service responsible for generating task plans
@@ -20,28 +23,42 @@ import java.util.stream.Collectors;
 @Service
 public class PlannerService {
 
+    private static final Pattern NUMBER_PREFIX = Pattern.compile("^(\\d+)\\.\\s+");
+    private static final Pattern DEPENDENCIES = Pattern.compile(
+            "\\(\\s*(?:depends on|after)\\s*:?([^)]*)\\)\\s*\\.?$", Pattern.CASE_INSENSITIVE);
+    // "none", or step numbers such as "1, 3", "steps 2 and 4"; anything else, e.g. "(after sunset)", is prose
+    private static final Pattern DEPENDENCY_LIST = Pattern.compile(
+            "\\s*(?:none|(?:steps?\\s*)?\\d+(?:\\s*(?:,\\s*and|,|and|&)\\s*(?:steps?\\s*)?\\d+)*)\\s*",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+
     private final ChatClient chatClient;
     private static final String SYSTEM_PROMPT = """
             You are an AI planner that specializes in breaking down complex goals into clear, actionable steps.
             
-            When given a goal, create a detailed plan with sequential steps to achieve it.
-            Each step should be specific, actionable, and lead logically to the next step.
+            When given a goal, create a detailed plan with steps to achieve it.
+            Each step should be specific and actionable.
+            
+            Steps that do not need each other's results can be carried out at the same time, so state the dependencies
+            of every step: end each step with "(depends on: ...)" listing the numbers of the earlier steps that must be
+            finished first, or "(depends on: none)" if it can start right away. A step may only depend on steps with
+            lower numbers.
             
             Format your response as a numbered list of steps, with each step on a new line.
             Do not include any explanations, introductions, or conclusions - only output the numbered steps.
             
             Example:
             For the goal "Bake a chocolate cake", you would respond:
-            1. Gather all ingredients (flour, sugar, cocoa powder, eggs, milk, butter)
-            2. Preheat oven to 350°F (175°C)
-            3. Grease and flour the cake pan
-            4. Mix dry ingredients in a bowl
-            5. Mix wet ingredients in a separate bowl
-            6. Combine wet and dry ingredients
-            7. Pour batter into the prepared pan
-            8. Bake for 30-35 minutes
-            9. Test with a toothpick to ensure it's done
-            10. Let cool before serving
+            1. Gather all ingredients (flour, sugar, cocoa powder, eggs, milk, butter) (depends on: none)
+            2. Preheat oven to 350°F (175°C) (depends on: none)
+            3. Grease and flour the cake pan (depends on: none)
+            4. Mix dry ingredients in a bowl (depends on: 1)
+            5. Mix wet ingredients in a separate bowl (depends on: 1)
+            6. Combine wet and dry ingredients (depends on: 4, 5)
+            7. Pour batter into the prepared pan (depends on: 3, 6)
+            8. Bake for 30-35 minutes (depends on: 2, 7)
+            9. Test with a toothpick to ensure it's done (depends on: 8)
+            10. Let cool before serving (depends on: 9)
             """;
 
     public PlannerService(ChatClient.Builder chatClientBuilder) {
@@ -55,35 +72,105 @@ public class PlannerService {
      * @return A TaskPlan object containing the goal and steps
      */
     public TaskPlan generatePlan(String goal) {
-        Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
-        Message userMessage = new UserMessage("Goal: " + goal);
-        
-        Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
-        ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
+        ChatResponse response = chatClient.prompt(buildPrompt(goal)).call().chatResponse();
 
         String content = Objects.requireNonNull(response).getResult().getOutput().getText();
-        List<String> steps = parseSteps(content);
+        List<PlanStep> steps = parseSteps(content);
         
         return new TaskPlan(goal, steps);
     }
     
+    /**
+     * Generate a task plan for a given goal, streaming the planner output.
+     * Each step is handed to the consumer as soon as its line is complete, before the rest of the plan is generated.
+     * 
+     * @param planId The id the plan gets, so its steps can be checkpointed before the plan is complete
+     * @param goal The goal to create a plan for
+     * @param onStep Receives each step as soon as it is parsed, in order
+     * @return A TaskPlan object containing the goal and steps
+     */
+    public TaskPlan streamPlan(String planId, String goal, Consumer<PlanStep> onStep) {
+        List<PlanStep> steps = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (String token : chatClient.prompt(buildPrompt(goal)).stream().content().toIterable()) {
+            int start = 0;
+            for (int newline = token.indexOf('\n'); newline >= 0; newline = token.indexOf('\n', start)) {
+                line.append(token, start, newline);
+                addStep(line.toString(), steps, onStep);
+                line.setLength(0);
+                start = newline + 1;
+            }
+            line.append(token, start, token.length());
+        }
+        addStep(line.toString(), steps, onStep);
+        
+        return new TaskPlan(planId, goal, steps);
+    }
+    
+    private Prompt buildPrompt(String goal) {
+        Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
+        Message userMessage = new UserMessage("Goal: " + goal);
+        
+        return new Prompt(List.of(systemMessage, userMessage));
+    }
+    
+    private void addStep(String line, List<PlanStep> steps, Consumer<PlanStep> onStep) {
+        PlanStep step = parseStep(line, steps.size() + 1);
+        if (step != null) {
+            steps.add(step);
+            onStep.accept(step);
+        }
+    }
+    
     /**
      * Parse the steps from the LLM response
      * 
      * @param content The raw content from the LLM
      * @return A list of steps
      */
-    private List<String> parseSteps(String content) {
-        return Arrays.stream(content.split("\n"))
-                .map(String::trim)
-                .filter(line -> !line.isEmpty())
-                .map(line -> {
-                    // Remove the number prefix (e.g., "1. ", "2. ")
-                    if (line.matches("^\\d+\\.\\s.*$")) {
-                        return line.replaceFirst("^\\d+\\.\\s+", "");
-                    }
-                    return line;
-                })
-                .collect(Collectors.toList());
+    private List<PlanStep> parseSteps(String content) {
+        List<PlanStep> steps = new ArrayList<>();
+        for (String line : content.split("\n")) {
+            PlanStep step = parseStep(line, steps.size() + 1);
+            if (step != null) {
+                steps.add(step);
+            }
+        }
+        return steps;
+    }
+    
+    /**
+     * Parse one line of the LLM response into a step, numbered by its "N." label.
+     * Lines without a label, and labelled lines out of sequence such as a nested list, are not steps.
+     * Dependencies on missing or later steps are dropped. A step without a dependency annotation that names step
+     * numbers or "none" depends on the step before it, so plans from a planner that ignores the annotation still run
+     * in order.
+     * 
+     * @param line The line
+     * @param number The number the next step must be labelled with
+     * @return The step, or null if the line is not the next step
+     */
+    PlanStep parseStep(String line, int number) {
+        Matcher label = NUMBER_PREFIX.matcher(line.trim());
+        if (!label.find() || !label.group(1).equals(Integer.toString(number))) {
+            return null;
+        }
+        String text = line.trim().substring(label.end());
+        
+        List<Integer> dependsOn = new ArrayList<>();
+        Matcher annotation = DEPENDENCIES.matcher(text);
+        if (annotation.find() && DEPENDENCY_LIST.matcher(annotation.group(1)).matches()) {
+            text = text.substring(0, annotation.start()).trim();
+            Matcher dependency = NUMBER.matcher(annotation.group(1));
+            while (dependency.find()) {
+                int dependencyNumber = Integer.parseInt(dependency.group());
+                if (dependencyNumber >= 1 && dependencyNumber < number && !dependsOn.contains(dependencyNumber)) {
+                    dependsOn.add(dependencyNumber);
+                }
+            }
+        } else if (number > 1) {
+            dependsOn.add(number - 1);
+        }
+        return new PlanStep(number, text, dependsOn);
     }
 }
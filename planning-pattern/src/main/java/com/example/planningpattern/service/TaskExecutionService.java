@@ -1,5 +1,9 @@
 package com.example.planningpattern.service;
 
+import com.example.planningpattern.checkpoint.CheckpointStore;
+import com.example.planningpattern.checkpoint.StepCheckpoint;
+import com.example.planningpattern.model.PlanStep;
+import com.example.planningpattern.model.StepStatus;
 import com.example.planningpattern.model.TaskPlan;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatResponse;
@@ -7,21 +11,36 @@ import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.SystemPromptTemplate;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
 
 /**
- * Service responsible for executing task plans
+ * Service responsible for executing task plans.
+ * Plans and the outcome of each step are checkpointed, so an interrupted or failed plan can be resumed:
+ * completed steps are skipped and only the remaining ones are executed.
+ * A plan is executed by at most one caller at a time; callers reserve the plan id before starting an execution.
  */
 @Service
 public class TaskExecutionService {
 
     private final ChatClient chatClient;
     private final Map<String, TaskPlan> activePlans;
+    private final Map<String, TaskPlan> plansById;
+    private final Map<String, Reservation> executingPlans = new ConcurrentHashMap<>();
+    private final CheckpointStore checkpointStore;
+    private final ExecutorService planExecutor;
+    private final int maxParallelism;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
     
     private static final String SYSTEM_PROMPT = """
             You are an AI task executor that specializes in carrying out specific tasks.
@@ -34,18 +53,44 @@ public class TaskExecutionService {
             Be specific and detailed in your response. Focus only on the execution of the given task.
             """;
 
-    public TaskExecutionService(ChatClient.Builder chatClient) {
+    public TaskExecutionService(ChatClient.Builder chatClient, CheckpointStore checkpointStore,
+                                ExecutorService planExecutor,
+                                @Value("${planning.execution.max-parallelism:4}") int maxParallelism,
+                                @Value("${planning.execution.max-attempts:3}") int maxAttempts,
+                                @Value("${planning.execution.retry-backoff:PT1S}") Duration retryBackoff) {
         this.chatClient = chatClient.build();
-        this.activePlans = new HashMap<>();
+        this.activePlans = new ConcurrentHashMap<>();
+        this.plansById = new ConcurrentHashMap<>();
+        this.checkpointStore = checkpointStore;
+        this.planExecutor = planExecutor;
+        this.maxParallelism = maxParallelism;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
     }
     
     /**
-     * Store a task plan for later execution
+     * Store a task plan for later execution, checkpointing its definition so it can be resumed after a restart
      * 
      * @param plan The task plan to store
      */
     public void storePlan(TaskPlan plan) {
+        plansById.put(plan.getId(), plan);
         activePlans.put(plan.getGoal(), plan);
+        checkpointStore.savePlan(plan);
+        // Steps of a streamed plan may have finished before the plan was complete
+        restoreStepStatuses(plan);
+    }
+    
+    /**
+     * Delete the step checkpoints of a streamed plan that was never stored, e.g. because planning failed after
+     * some of its steps had run. Without the plan definition they could never be resumed.
+     * 
+     * @param planId The id of the plan
+     */
+    public void discardUnstoredPlan(String planId) {
+        if (!plansById.containsKey(planId)) {
+            checkpointStore.deletePlan(planId);
+        }
     }
     
     /**
@@ -58,6 +103,28 @@ public class TaskExecutionService {
         return activePlans.get(goal);
     }
     
+    /**
+     * Get a task plan by id, loading it from its checkpoints if it is not in memory, e.g. after a restart
+     * 
+     * @param id The id of the task plan
+     * @return The task plan with the status of each step, or null if not found
+     * @throws IllegalArgumentException If the id is not a valid plan id
+     */
+    public TaskPlan getPlanById(String id) {
+        TaskPlan plan = plansById.get(id);
+        if (plan != null) {
+            return plan;
+        }
+        TaskPlan stored = checkpointStore.loadPlan(id);
+        if (stored == null) {
+            return null;
+        }
+        restoreStepStatuses(stored);
+        plan = plansById.computeIfAbsent(id, ignored -> stored);
+        activePlans.putIfAbsent(plan.getGoal(), plan);
+        return plan;
+    }
+    
     /**
      * Get all stored task plans
      * 
@@ -84,22 +151,177 @@ public class TaskExecutionService {
     }
     
     /**
-     * Execute all steps in a task plan
+     * Reserve a plan for an execution, so that no other execution of it starts until the reservation is released
+     * 
+     * @param planId The id of the plan
+     * @return The reservation, or null if the plan is already reserved
+     */
+    public Reservation reserve(String planId) {
+        Reservation reservation = new Reservation(planId);
+        return executingPlans.putIfAbsent(planId, reservation) == null ? reservation : null;
+    }
+    
+    /**
+     * Release a reservation; releasing it again has no effect
+     * 
+     * @param reservation The reservation
+     */
+    public void release(Reservation reservation) {
+        executingPlans.remove(reservation.planId, reservation);
+    }
+    
+    /**
+     * Start an execution to which plan steps are submitted one by one, e.g. while the plan is still being generated.
+     * Each step is retried up to {@code planning.execution.max-attempts} times with exponential backoff, and its
+     * outcome is checkpointed under the plan id.
+     * 
+     * @param planId The id of the plan the steps belong to
+     * @param onStepFinished Called with each step and its result as soon as the step finishes
+     * @return A new execution, running at most {@code planning.execution.max-parallelism} steps at a time
+     */
+    public PlanExecution newExecution(String planId, BiConsumer<PlanStep, String> onStepFinished) {
+        return newExecution(planId, Map.of(), onStepFinished);
+    }
+    
+    /**
+     * Start executing a stored plan, resuming from its checkpoints. The caller must hold the plan's reservation.
+     * Steps that completed in an earlier execution are not executed again; their checkpointed results are reported
+     * to the callback right away. Failed and pending steps are executed, each as soon as its dependencies have
+     * finished.
+     * 
+     * @param plan The task plan
+     * @param onStepFinished Called with each step and its result, including steps completed earlier
+     * @return The execution, to which every step of the plan has been submitted
+     */
+    public PlanExecution startPlan(TaskPlan plan, BiConsumer<PlanStep, String> onStepFinished) {
+        Map<Integer, StepCheckpoint> checkpoints = checkpointStore.loadSteps(plan.getId());
+        PlanExecution execution = newExecution(plan.getId(), checkpoints, onStepFinished);
+        for (PlanStep step : plan.getSteps()) {
+            StepCheckpoint checkpoint = checkpoints.get(step.getNumber());
+            if (checkpoint != null && checkpoint.status() == StepStatus.COMPLETED) {
+                plan.setStepStatus(step.getNumber(), StepStatus.COMPLETED);
+                onStepFinished.accept(step, checkpoint.result());
+                execution.submitCompleted(step, checkpoint.result());
+            } else {
+                execution.submit(step);
+            }
+        }
+        return execution;
+    }
+    
+    /**
+     * Execute all steps in a task plan that have not completed yet.
+     * Each step starts as soon as the steps it depends on have finished, so independent steps run concurrently,
+     * at most {@code planning.execution.max-parallelism} at a time.
      * 
      * @param goal The goal of the task plan to execute
-     * @return The execution results for each step
+     * @return The execution results for each step, in step order
+     * @throws IllegalStateException If the plan is already being executed
      */
     public List<String> executeFullPlan(String goal) {
         TaskPlan plan = activePlans.get(goal);
         if (plan == null) {
             throw new IllegalArgumentException("No plan found for goal: " + goal);
         }
+        return executeReserved(plan);
+    }
+    
+    /**
+     * Resume a plan by id, e.g. after a step failed on every attempt or the application was restarted.
+     * Completed steps are skipped; only failed and pending steps are executed.
+     * 
+     * @param planId The id of the task plan
+     * @return The execution results for each step, in step order
+     * @throws IllegalStateException If the plan is already being executed
+     */
+    public List<String> resumePlan(String planId) {
+        TaskPlan plan = getPlanById(planId);
+        if (plan == null) {
+            throw new IllegalArgumentException("No plan found for id: " + planId);
+        }
+        return executeReserved(plan);
+    }
+    
+    private List<String> executeReserved(TaskPlan plan) {
+        Reservation reservation = reserve(plan.getId());
+        if (reservation == null) {
+            throw new IllegalStateException("Plan " + plan.getId() + " is already being executed");
+        }
+        try {
+            // Even when a step fails, awaitResults returns only after the other running steps have finished
+            return startPlan(plan, (step, result) -> { }).awaitResults();
+        } finally {
+            release(reservation);
+        }
+    }
+    
+    private PlanExecution newExecution(String planId, Map<Integer, StepCheckpoint> checkpoints,
+                                       BiConsumer<PlanStep, String> onStepFinished) {
+        PlanExecution.Listener listener = new PlanExecution.Listener() {
+            @Override
+            public void stepStarted(PlanStep step) {
+                setStepStatus(planId, step, StepStatus.RUNNING);
+            }
+            
+            @Override
+            public void stepCancelled(PlanStep step) {
+                // Not run to the end; a later execution picks it up again
+                setStepStatus(planId, step, StepStatus.PENDING);
+            }
+            
+            @Override
+            public void stepFinished(PlanStep step, String result, int attempts) {
+                checkpointStore.saveStep(planId, new StepCheckpoint(step.getNumber(), StepStatus.COMPLETED, result,
+                        null, previousAttempts(checkpoints, step) + attempts, System.currentTimeMillis()));
+                setStepStatus(planId, step, StepStatus.COMPLETED);
+                onStepFinished.accept(step, result);
+            }
+            
+            @Override
+            public void stepFailed(PlanStep step, RuntimeException error, int attempts) {
+                checkpointStore.saveStep(planId, new StepCheckpoint(step.getNumber(), StepStatus.FAILED, null,
+                        error.toString(), previousAttempts(checkpoints, step) + attempts,
+                        System.currentTimeMillis()));
+                setStepStatus(planId, step, StepStatus.FAILED);
+            }
+        };
+        return new PlanExecution(step -> executeSingleTask(step.getDescription()), planExecutor, maxParallelism,
+                maxAttempts, retryBackoff, listener);
+    }
+    
+    private static int previousAttempts(Map<Integer, StepCheckpoint> checkpoints, PlanStep step) {
+        StepCheckpoint checkpoint = checkpoints.get(step.getNumber());
+        return checkpoint == null ? 0 : checkpoint.attempts();
+    }
+    
+    /**
+     * Set a step's status on the plan, if the plan is stored; the steps of a streamed plan run before it is
+     */
+    private void setStepStatus(String planId, PlanStep step, StepStatus status) {
+        TaskPlan plan = plansById.get(planId);
+        if (plan != null) {
+            plan.setStepStatus(step.getNumber(), status);
+        }
+    }
+    
+    private void restoreStepStatuses(TaskPlan plan) {
+        checkpointStore.loadSteps(plan.getId())
+                .forEach((step, checkpoint) -> plan.setStepStatus(step, checkpoint.status()));
+    }
+    
+    /**
+     * The right to execute a plan, held from before its execution starts until it has finished
+     */
+    public static final class Reservation {
+        
+        private final String planId;
         
-        List<String> results = plan.getSteps().stream()
-                .map(this::executeSingleTask)
-                .toList();
+        private Reservation(String planId) {
+            this.planId = planId;
+        }
         
-        plan.setCompleted(true);
-        return results;
+        public String getPlanId() {
+            return planId;
+        }
     }
 }
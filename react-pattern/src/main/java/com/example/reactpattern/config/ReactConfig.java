@@ -0,0 +1,25 @@
+package com.example.reactpattern.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared infrastructure for the ReAct Pattern services
+ */
+@Configuration
+public class ReactConfig {
+
+    /**
+     * Executor used to run ReAct episodes and their model and tool calls off the request thread.
+     * The work is dominated by blocking LLM calls, so each task gets its own virtual thread.
+     *
+     * @return A virtual-thread-per-task executor
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService reactExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -1,7 +1,29 @@
 package com.example.reactpattern.controller;
 
+import com.example.reactpattern.engine.EpisodeResult;
+import com.example.reactpattern.engine.PromptTokenMetrics;
+import com.example.reactpattern.engine.PromptTokenStats;
+import com.example.reactpattern.engine.ReactEngine;
+import com.example.reactpattern.engine.ReactEvent;
+import com.example.reactpattern.execution.ToolCache;
+import com.example.reactpattern.execution.ToolCacheStats;
 import com.example.reactpattern.service.ReactService;
+import com.example.reactpattern.trajectory.TrajectoryMode;
+import com.example.reactpattern.trajectory.TrajectoryStats;
+import com.example.reactpattern.trajectory.TrajectoryStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Controller for the ReAct Pattern API
@@ -10,20 +32,119 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/react")
 public class ReactController {
 
+    private static final String SESSION_HEADER = "X-Session-Id";
+
     private final ReactService reactService;
+    private final ReactEngine reactEngine;
+    private final ToolCache toolCache;
+    private final PromptTokenMetrics promptTokenMetrics;
+    private final TrajectoryStore trajectoryStore;
+    private final ExecutorService reactExecutor;
+    private final long streamTimeoutMs;
 
-    public ReactController(ReactService reactService) {
+    public ReactController(ReactService reactService, ReactEngine reactEngine, ToolCache toolCache,
+                           PromptTokenMetrics promptTokenMetrics, TrajectoryStore trajectoryStore,
+                           ExecutorService reactExecutor,
+                           @Value("${react.stream.timeout-ms:300000}") long streamTimeoutMs) {
         this.reactService = reactService;
+        this.reactEngine = reactEngine;
+        this.toolCache = toolCache;
+        this.promptTokenMetrics = promptTokenMetrics;
+        this.trajectoryStore = trajectoryStore;
+        this.reactExecutor = reactExecutor;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
 
     /**
      * Process a user query using the ReAct pattern
      * 
      * @param query The user's query
-     * @return The response from the ReAct process
+     * @param sessionId Optional id of the session to continue; a new session is started if absent
+     * @return The response from the ReAct process, with the session id in the X-Session-Id header
      */
     @GetMapping
-    public String processQuery(@RequestParam String query) {
-        return reactService.processQuery(query);
+    public ResponseEntity<String> processQuery(@RequestParam String query,
+                                               @RequestHeader(value = SESSION_HEADER, required = false) String sessionId) {
+        String session = sessionOrNew(sessionId);
+        return ResponseEntity.ok().header(SESSION_HEADER, session).body(reactService.processQuery(query, session));
+    }
+
+    /**
+     * Process a user query with the step-bounded ReAct engine, streaming each step as server-sent events.
+     * Thoughts, actions and observations are sent as "thought", "action" and "observation" events with the step
+     * number as id, the answer as an "answer" event, and the outcome as a final "complete" event.
+     * 
+     * @param query The user's query
+     * @param trajectory Trajectory mode: off, record, or replay (serve recorded model turns while tool results match)
+     * @param sessionId Optional id of the session to continue; a new session is started if absent
+     * @return An emitter that streams the episode, with the session id in the X-Session-Id header,
+     *         or 400 Bad Request if the trajectory mode is unknown
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamQuery(@RequestParam String query,
+                                                  @RequestParam(defaultValue = "${react.trajectories.mode:off}") String trajectory,
+                                                  @RequestHeader(value = SESSION_HEADER, required = false) String sessionId) {
+        TrajectoryMode trajectoryMode;
+        try {
+            trajectoryMode = TrajectoryMode.parse(trajectory);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String session = sessionOrNew(sessionId);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        reactExecutor.execute(() -> {
+            try {
+                EpisodeResult result = reactEngine.run(query, session, trajectoryMode, event -> send(emitter, event));
+                emitter.send(SseEmitter.event().name("complete").data(result));
+                emitter.complete();
+            } catch (IOException | RuntimeException e) {
+                // Also reached when the client disconnects, which stops the episode
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok().header(SESSION_HEADER, session).body(emitter);
+    }
+
+    /**
+     * Get per-tool result cache statistics
+     * 
+     * @return Hits, misses, hit ratio and invalidations by tool name
+     */
+    @GetMapping("/tools/cache/stats")
+    public Map<String, ToolCacheStats> getToolCacheStats() {
+        return toolCache.stats();
+    }
+
+    /**
+     * Get the average prompt size of each step of the ReAct engine, before and after scratchpad compaction
+     * 
+     * @return Average estimated prompt tokens and the reduction by step number
+     */
+    @GetMapping("/engine/prompt-tokens")
+    public List<PromptTokenStats> getPromptTokenStats() {
+        return promptTokenMetrics.stats();
+    }
+
+    /**
+     * Get trajectory recording and replay statistics
+     * 
+     * @return Lookups, hits, divergences and recorded trajectories
+     */
+    @GetMapping("/trajectories/stats")
+    public TrajectoryStats getTrajectoryStats() {
+        return trajectoryStore.stats();
+    }
+
+    private static String sessionOrNew(String sessionId) {
+        return sessionId == null || sessionId.isBlank() ? UUID.randomUUID().toString() : sessionId;
+    }
+
+    private static void send(SseEmitter emitter, ReactEvent event) {
+        try {
+            emitter.send(SseEmitter.event().id(String.valueOf(event.step()))
+                    .name(event.type().name().toLowerCase(Locale.ROOT)).data(event.content()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
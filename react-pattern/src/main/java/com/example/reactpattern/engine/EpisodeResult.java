@@ -0,0 +1,18 @@
+package com.example.reactpattern.engine;
+
+import java.util.List;
+
+/**
+ * Outcome of a ReAct episode
+ *
+ * @param answer The final answer, or a partial answer built from the last step if the episode stopped early
+ * @param stopReason Why the episode stopped
+ * @param steps Number of model turns taken
+ * @param tokensUsed Tokens consumed by all model turns, as reported by the model or estimated
+ * @param elapsedMillis Wall-clock duration of the episode
+ * @param promptTokens Estimated prompt tokens of each live model turn, before and after scratchpad compaction
+ * @param replayedSteps Number of leading steps whose model turn was replayed from a recorded trajectory
+ */
+public record EpisodeResult(String answer, StopReason stopReason, int steps, int tokensUsed, long elapsedMillis,
+                            List<PromptTokens> promptTokens, int replayedSteps) {
+}
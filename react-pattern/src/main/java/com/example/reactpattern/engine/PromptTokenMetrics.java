@@ -0,0 +1,46 @@
+package com.example.reactpattern.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prompt tokens per step before and after scratchpad compaction, accumulated over all ReAct episodes
+ */
+@Component
+public class PromptTokenMetrics {
+
+    private final ConcurrentHashMap<Integer, Totals> byStep = new ConcurrentHashMap<>();
+
+    /**
+     * Record the prompt size of a step
+     *
+     * @param tokens The prompt tokens of the step
+     */
+    public void record(PromptTokens tokens) {
+        Totals totals = byStep.computeIfAbsent(tokens.step(), step -> new Totals());
+        totals.samples.increment();
+        totals.before.add(tokens.beforeCompaction());
+        totals.after.add(tokens.afterCompaction());
+    }
+
+    /**
+     * @return Statistics for each step position reached so far, in step order
+     */
+    public List<PromptTokenStats> stats() {
+        List<PromptTokenStats> stats = new ArrayList<>();
+        byStep.forEach((step, totals) -> stats.add(
+                new PromptTokenStats(step, totals.samples.sum(), totals.before.sum(), totals.after.sum())));
+        stats.sort((a, b) -> Integer.compare(a.getStep(), b.getStep()));
+        return stats;
+    }
+
+    private static final class Totals {
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder before = new LongAdder();
+        private final LongAdder after = new LongAdder();
+    }
+}
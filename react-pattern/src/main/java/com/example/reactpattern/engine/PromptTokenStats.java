@@ -0,0 +1,45 @@
+package com.example.reactpattern.engine;
+
+/**
+ * Point-in-time prompt size statistics of one step position across ReAct episodes
+ */
+public class PromptTokenStats {
+
+    private final int step;
+    private final long samples;
+    private final long tokensBefore;
+    private final long tokensAfter;
+
+    public PromptTokenStats(int step, long samples, long tokensBefore, long tokensAfter) {
+        this.step = step;
+        this.samples = samples;
+        this.tokensBefore = tokensBefore;
+        this.tokensAfter = tokensAfter;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return Number of episodes that reached this step
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    public double getAverageTokensBeforeCompaction() {
+        return samples == 0 ? 0.0 : (double) tokensBefore / samples;
+    }
+
+    public double getAverageTokensAfterCompaction() {
+        return samples == 0 ? 0.0 : (double) tokensAfter / samples;
+    }
+
+    /**
+     * @return Fraction of prompt tokens saved by compaction at this step
+     */
+    public double getReduction() {
+        return tokensBefore == 0 ? 0.0 : 1.0 - (double) tokensAfter / tokensBefore;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.reactpattern.engine;
+
+/**
+ * Estimated prompt size of one step of a ReAct episode
+ *
+ * @param step The step, starting at 1
+ * @param beforeCompaction Prompt tokens with every observation verbatim
+ * @param afterCompaction Prompt tokens actually sent, after scratchpad compaction
+ */
+public record PromptTokens(int step, int beforeCompaction, int afterCompaction) {
+}
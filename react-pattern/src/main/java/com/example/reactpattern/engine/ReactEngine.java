@@ -0,0 +1,335 @@
+package com.example.reactpattern.engine;
+
+import com.example.reactpattern.environment.EnvironmentSessions;
+import com.example.reactpattern.execution.ToolCallbackFactory;
+import com.example.reactpattern.tools.EnvironmentTool;
+import com.example.reactpattern.tools.SearchTool;
+import com.example.reactpattern.tools.SemanticSearchTool;
+import com.example.reactpattern.trajectory.Trajectory;
+import com.example.reactpattern.trajectory.TrajectoryMode;
+import com.example.reactpattern.trajectory.TrajectoryStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Runs the ReAct loop one step at a time instead of leaving the tool turns to the model client.
+ * <p>
+ * Each step is one model turn in a plain-text protocol (Thought / Action / Action Input, or Final Answer). The
+ * engine parses the turn, calls the named tool itself and feeds the observation into the next turn. Every thought,
+ * action, observation and answer is passed to a listener as soon as it is known. An episode is bounded by a step
+ * count, a wall-clock deadline and a token budget; whichever is hit first ends it with a partial answer.
+ * <p>
+ * The steps so far are passed back through a {@link Scratchpad}, compacted so that the prompt stays under a token
+ * ceiling however long the episode runs.
+ * <p>
+ * Episodes can be recorded in a {@link TrajectoryStore} and replayed: recorded model turns are served instead of
+ * calling the model while the tools keep returning the recorded observations. The first differing observation
+ * hands the rest of the episode to the live model.
+ */
+@Service
+public class ReactEngine {
+
+    private static final String SYSTEM_PROMPT = """
+            You are an AI assistant that solves problems with the ReAct (Reasoning + Acting) pattern.
+            You work in steps. In each step, reply with exactly one of these two forms and nothing else:
+
+            Thought: [your reasoning about what to do next]
+            Action: [the name of one tool]
+            Action Input: [a JSON object with the tool's arguments]
+
+            or, once you have enough information:
+
+            Thought: [your final reasoning]
+            Final Answer: [your complete response to the user's query]
+
+            After each action you will be given an Observation with the tool's result. Never write an Observation yourself.
+
+            Available tools:
+            %s""";
+
+    /** Completion tokens a step needs at least; with fewer left in the budget the episode stops */
+    private static final int MIN_STEP_TOKENS = 64;
+
+    private final ChatClient chatClient;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService reactExecutor;
+    private final PromptTokenMetrics promptTokenMetrics;
+    private final EnvironmentSessions sessions;
+    private final TrajectoryStore trajectoryStore;
+    private final Map<String, ToolCallback> tools = new LinkedHashMap<>();
+    private final String systemPrompt;
+    private final int maxSteps;
+    private final Duration timeout;
+    private final int tokenBudget;
+    private final int maxTokensPerStep;
+    private final int verbatimObservations;
+    private final int summaryChars;
+    private final int promptTokenCeiling;
+
+    public ReactEngine(ChatClient.Builder chatClient, SearchTool searchTool, SemanticSearchTool semanticSearchTool,
+                       EnvironmentTool environmentTool, ToolCallbackFactory toolCallbackFactory,
+                       ObjectMapper objectMapper, ExecutorService reactExecutor, PromptTokenMetrics promptTokenMetrics,
+                       EnvironmentSessions sessions, TrajectoryStore trajectoryStore,
+                       @Value("${react.engine.max-steps:8}") int maxSteps,
+                       @Value("${react.engine.timeout:PT60S}") Duration timeout,
+                       @Value("${react.engine.token-budget:16000}") int tokenBudget,
+                       @Value("${react.engine.max-tokens-per-step:1024}") int maxTokensPerStep,
+                       @Value("${react.scratchpad.verbatim-observations:3}") int verbatimObservations,
+                       @Value("${react.scratchpad.summary-chars:200}") int summaryChars,
+                       @Value("${react.scratchpad.prompt-token-ceiling:6000}") int promptTokenCeiling) {
+        this.chatClient = chatClient.build();
+        this.objectMapper = objectMapper;
+        this.reactExecutor = reactExecutor;
+        this.promptTokenMetrics = promptTokenMetrics;
+        this.sessions = sessions;
+        this.trajectoryStore = trajectoryStore;
+        this.maxSteps = maxSteps;
+        this.timeout = timeout;
+        this.tokenBudget = tokenBudget;
+        this.maxTokensPerStep = maxTokensPerStep;
+        this.verbatimObservations = verbatimObservations;
+        this.summaryChars = summaryChars;
+        this.promptTokenCeiling = promptTokenCeiling;
+
+        StringBuilder toolList = new StringBuilder();
+        for (ToolCallback callback : toolCallbackFactory.create(searchTool, semanticSearchTool, environmentTool)) {
+            tools.put(callback.getToolDefinition().name(), callback);
+            toolList.append("- ").append(callback.getToolDefinition().name()).append(": ")
+                    .append(callback.getToolDefinition().description()).append("\n  Input schema: ")
+                    .append(callback.getToolDefinition().inputSchema()).append("\n");
+        }
+        this.systemPrompt = SYSTEM_PROMPT.formatted(toolList);
+    }
+
+    /**
+     * Run a ReAct episode
+     *
+     * @param query The user's query
+     * @param sessionId The session whose environment the tools act on
+     * @param trajectoryMode Whether to record the episode and replay a recorded one
+     * @param listener Receives each thought, action, observation and answer as it happens; an exception it
+     *                 throws aborts the episode
+     * @return The outcome of the episode
+     */
+    public EpisodeResult run(String query, String sessionId, TrajectoryMode trajectoryMode,
+                             Consumer<ReactEvent> listener) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        ToolContext toolContext = new ToolContext(Map.of(EnvironmentTool.SESSION_ID, sessionId));
+        Scratchpad scratchpad = new Scratchpad(verbatimObservations, summaryChars);
+        List<PromptTokens> promptTokens = new ArrayList<>();
+        int tokensUsed = 0;
+        int step = 0;
+        StopReason stopReason = StopReason.MAX_STEPS;
+
+        // The system prompt and question are always sent in full; the scratchpad gets the rest of the ceiling
+        String question = "Question: " + query + "\n\n";
+        int fixedTokens = TokenEstimator.estimate(systemPrompt) + TokenEstimator.estimate(question);
+
+        // Recorded model turns are served for as long as the tools return the recorded observations
+        String startState = trajectoryMode == TrajectoryMode.OFF ? null : sessions.get(sessionId).describe();
+        String trajectoryKey = startState == null ? null : trajectoryStore.key(systemPrompt, query, startState);
+        List<Trajectory.Step> recorded = trajectoryMode == TrajectoryMode.REPLAY
+                ? trajectoryStore.find(trajectoryKey)
+                : List.of();
+        List<Trajectory.Step> recording = new ArrayList<>();
+        boolean replaying = !recorded.isEmpty();
+        int replayedSteps = 0;
+
+        while (step < maxSteps) {
+            String reply;
+            if (replaying && step < recorded.size()) {
+                reply = recorded.get(step).modelOutput();
+                replayedSteps++;
+            } else {
+                replaying = false;
+                String compacted = scratchpad.compact(promptTokenCeiling - fixedTokens);
+                String userPrompt = question + compacted;
+                PromptTokens stepTokens = new PromptTokens(step + 1,
+                        fixedTokens + TokenEstimator.estimate(scratchpad.render()),
+                        fixedTokens + TokenEstimator.estimate(compacted));
+                int available = Math.min(maxTokensPerStep, tokenBudget - tokensUsed - stepTokens.afterCompaction());
+                if (available < MIN_STEP_TOKENS) {
+                    stopReason = StopReason.TOKEN_BUDGET_EXHAUSTED;
+                    break;
+                }
+
+                ChatResponse response = withinDeadline(() -> callModel(userPrompt, available), deadline);
+                if (response == null) {
+                    stopReason = StopReason.DEADLINE_EXCEEDED;
+                    break;
+                }
+                promptTokens.add(stepTokens);
+                promptTokenMetrics.record(stepTokens);
+                reply = response.getResult().getOutput().getText();
+                reply = reply == null ? "" : reply;
+                tokensUsed += tokensUsed(response, stepTokens.afterCompaction(), reply);
+            }
+            step++;
+
+            Turn turn = Turn.parse(reply);
+            if (turn.thought() != null) {
+                listener.accept(new ReactEvent(ReactEvent.Type.THOUGHT, step, turn.thought()));
+            }
+            if (turn.finalAnswer() != null) {
+                listener.accept(new ReactEvent(ReactEvent.Type.ANSWER, step, turn.finalAnswer()));
+                recording.add(new Trajectory.Step(reply, null));
+                if (trajectoryKey != null && replayedSteps < step) {
+                    trajectoryStore.save(new Trajectory(trajectoryKey, query, startState, recording,
+                            System.currentTimeMillis()));
+                }
+                return new EpisodeResult(turn.finalAnswer(), StopReason.FINAL_ANSWER, step, tokensUsed,
+                        elapsedMillis(start), promptTokens, replayedSteps);
+            }
+
+            String actionInput = turn.actionInput() == null ? "" : turn.actionInput();
+            listener.accept(new ReactEvent(ReactEvent.Type.ACTION, step, turn.action() + " " + actionInput));
+            String observation = withinDeadline(() -> callTool(turn.action(), actionInput, toolContext), deadline);
+            if (observation == null) {
+                stopReason = StopReason.DEADLINE_EXCEEDED;
+                break;
+            }
+            listener.accept(new ReactEvent(ReactEvent.Type.OBSERVATION, step, observation));
+            scratchpad.add(new Scratchpad.Step(turn.thought(), turn.action(), actionInput, observation));
+            recording.add(new Trajectory.Step(reply, observation));
+
+            if (replaying && !Trajectory.sameObservation(observation, recorded.get(step - 1).observation())) {
+                // The recorded turns after this one were based on another observation
+                replaying = false;
+                trajectoryStore.recordDivergence();
+            }
+        }
+
+        String answer = partialAnswer(stopReason, step, scratchpad.steps());
+        listener.accept(new ReactEvent(ReactEvent.Type.ANSWER, step, answer));
+        return new EpisodeResult(answer, stopReason, step, tokensUsed, elapsedMillis(start), promptTokens,
+                replayedSteps);
+    }
+
+    private ChatResponse callModel(String userPrompt, int maxTokens) {
+        List<Message> messages = List.of(new SystemMessage(systemPrompt), new UserMessage(userPrompt));
+        ChatOptions options = ChatOptions.builder()
+                .maxTokens(maxTokens)
+                .stopSequences(List.of("\nObservation:"))
+                .build();
+        return chatClient.prompt(new Prompt(messages, options)).call().chatResponse();
+    }
+
+    private String callTool(String name, String input, ToolContext toolContext) {
+        ToolCallback tool = name == null ? null : tools.get(name);
+        if (tool == null) {
+            return "Unknown tool '" + name + "'. Available tools: " + String.join(", ", tools.keySet());
+        }
+        try {
+            return tool.call(arguments(tool, input), toolContext);
+        } catch (RuntimeException e) {
+            return "Tool " + name + " failed: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Tool arguments as JSON. Models sometimes pass a bare value instead of an object; it is assigned to the tool's
+     * first parameter.
+     */
+    private String arguments(ToolCallback tool, String input) {
+        String trimmed = input.trim();
+        if (trimmed.startsWith("{")) {
+            return trimmed;
+        }
+        try {
+            Iterator<String> parameters = objectMapper.readTree(tool.getToolDefinition().inputSchema())
+                    .path("properties").fieldNames();
+            if (trimmed.isEmpty() || !parameters.hasNext()) {
+                return "{}";
+            }
+            String value = trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\"")
+                    ? trimmed.substring(1, trimmed.length() - 1)
+                    : trimmed;
+            return "{" + objectMapper.writeValueAsString(parameters.next()) + ":"
+                    + objectMapper.writeValueAsString(value) + "}";
+        } catch (JsonProcessingException e) {
+            return "{}";
+        }
+    }
+
+    /**
+     * Run a call on the ReAct executor, giving up at the deadline
+     *
+     * @return The result of the call, or null if the deadline passed first
+     */
+    private <T> T withinDeadline(Callable<T> call, long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return null;
+        }
+        Future<T> future = reactExecutor.submit(call);
+        try {
+            return future.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return null;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a ReAct step", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("ReAct step failed", e.getCause());
+        }
+    }
+
+    /**
+     * Tokens consumed by a model turn, as reported by the model, or estimated from the text if it reports none
+     */
+    private static int tokensUsed(ChatResponse response, int promptTokens, String reply) {
+        Usage usage = response.getMetadata() == null ? null : response.getMetadata().getUsage();
+        if (usage != null && usage.getTotalTokens() != null && usage.getTotalTokens() > 0) {
+            return usage.getTotalTokens();
+        }
+        return promptTokens + TokenEstimator.estimate(reply);
+    }
+
+    private static String partialAnswer(StopReason stopReason, int steps, List<Scratchpad.Step> completed) {
+        StringBuilder answer = new StringBuilder("No final answer (" + stopReason + " after " + steps + " steps).");
+        if (!completed.isEmpty()) {
+            Scratchpad.Step last = completed.get(completed.size() - 1);
+            if (last.thought() != null) {
+                answer.append(" Last thought: ").append(last.thought());
+            }
+            answer.append(" Last observation: ").append(last.observation());
+        }
+        return answer.toString();
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
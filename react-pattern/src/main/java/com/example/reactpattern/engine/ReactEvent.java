@@ -0,0 +1,21 @@
+package com.example.reactpattern.engine;
+
+/**
+ * One thought, action, observation or answer of a ReAct episode, emitted as soon as it is known
+ *
+ * @param type The kind of event
+ * @param step The step the event belongs to, starting at 1
+ * @param content The text of the thought, action, observation or answer
+ */
+public record ReactEvent(Type type, int step, String content) {
+
+    /**
+     * Kind of event
+     */
+    public enum Type {
+        THOUGHT,
+        ACTION,
+        OBSERVATION,
+        ANSWER
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.reactpattern.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The steps of a ReAct episode so far, rendered into the prompt of the next model turn.
+ * <p>
+ * {@link #render()} writes every step verbatim. {@link #compact(int)} keeps the prompt from growing with the
+ * episode:
+ * <ul>
+ *     <li>An observation that is repeated by a later step is replaced by a reference to its last repetition.</li>
+ *     <li>The most recent observations are kept verbatim; older ones are cut down to their first few characters.</li>
+ *     <li>If that is still over the token limit, fewer observations are kept verbatim, down to the most recent one,
+ *     and then the oldest steps are left out.</li>
+ *     <li>As a last resort, the body of the most recent observation is cut short. The protocol lines around it are
+ *     never cut, so the model always sees a well-formed step.</li>
+ * </ul>
+ */
+public class Scratchpad {
+
+    private final List<Step> steps = new ArrayList<>();
+    private final int verbatimObservations;
+    private final int summaryChars;
+
+    /**
+     * @param verbatimObservations Number of most recent observations kept verbatim
+     * @param summaryChars Number of leading characters an older observation is cut down to
+     */
+    public Scratchpad(int verbatimObservations, int summaryChars) {
+        this.verbatimObservations = verbatimObservations;
+        this.summaryChars = summaryChars;
+    }
+
+    /**
+     * Record a completed step
+     *
+     * @param step The step
+     */
+    public void add(Step step) {
+        steps.add(step);
+    }
+
+    /**
+     * @return The steps recorded so far, oldest first
+     */
+    public List<Step> steps() {
+        return List.copyOf(steps);
+    }
+
+    /**
+     * Render every step verbatim in the ReAct text protocol
+     *
+     * @return The rendered steps, empty if there are none
+     */
+    public String render() {
+        return render(0, steps.size(), false);
+    }
+
+    /**
+     * Render the steps in the ReAct text protocol, compacted to fit a token limit
+     *
+     * @param maxTokens Maximum estimated tokens of the rendered steps
+     * @return The compacted steps, empty if there are none
+     */
+    public String compact(int maxTokens) {
+        int count = steps.size();
+        String text = render(0, Math.min(verbatimObservations, count), true);
+        for (int verbatim = Math.min(verbatimObservations, count) - 1;
+             verbatim >= 1 && TokenEstimator.estimate(text) > maxTokens; verbatim--) {
+            text = render(0, verbatim, true);
+        }
+        for (int omitted = 1; omitted < count && TokenEstimator.estimate(text) > maxTokens; omitted++) {
+            text = render(omitted, 1, true);
+        }
+        int maxChars = Math.max(0, maxTokens) * TokenEstimator.CHARS_PER_TOKEN;
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        // Only the newest step is left, and its verbatim observation is the last thing before the closing line break
+        text = render(count - 1, 1, true);
+        String observation = steps.get(count - 1).observation();
+        int frameChars = text.length() - observation.length() - 1;
+        String cut = truncate(observation, maxChars - frameChars - 1);
+        return text.substring(0, frameChars) + cut + "\n";
+    }
+
+    /**
+     * @param omitted Number of oldest steps to leave out
+     * @param verbatim Number of most recent observations to keep verbatim
+     * @param compact Whether to replace repeated and older observations
+     */
+    private String render(int omitted, int verbatim, boolean compact) {
+        int count = steps.size();
+        int[] repeatedAt = compact ? repeatedAt() : null;
+
+        StringBuilder text = new StringBuilder();
+        if (omitted > 0) {
+            text.append("[Steps 1-").append(omitted).append(" omitted]\n");
+        }
+        for (int i = omitted; i < count; i++) {
+            Step step = steps.get(i);
+            if (step.thought() != null) {
+                text.append("Thought: ").append(step.thought()).append("\n");
+            }
+            text.append("Action: ").append(step.action()).append("\n")
+                    .append("Action Input: ").append(step.actionInput()).append("\n")
+                    .append("Observation: ");
+            if (!compact || i >= count - verbatim && repeatedAt[i] < 0) {
+                text.append(step.observation());
+            } else if (repeatedAt[i] >= 0) {
+                text.append("[Same as the observation of step ").append(repeatedAt[i] + 1).append("]");
+            } else {
+                text.append(summarize(step.observation()));
+            }
+            text.append("\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return For each step, the index of the last later step with an identical observation, or -1 if there is none
+     */
+    private int[] repeatedAt() {
+        int[] repeatedAt = new int[steps.size()];
+        Map<String, Integer> latest = new HashMap<>();
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            Integer later = latest.putIfAbsent(steps.get(i).observation(), i);
+            repeatedAt[i] = later == null ? -1 : later;
+        }
+        return repeatedAt;
+    }
+
+    /**
+     * Cut an observation down to its first {@code summaryChars} characters, with line breaks collapsed
+     */
+    private String summarize(String observation) {
+        String collapsed = observation.strip().replaceAll("\\s+", " ");
+        if (collapsed.length() <= summaryChars) {
+            return collapsed;
+        }
+        return collapsed.substring(0, summaryChars).stripTrailing()
+                + " ... [" + (collapsed.length() - summaryChars) + " more characters elided]";
+    }
+
+    /**
+     * Cut an observation to at most {@code maxChars} characters, keeping its beginning and line breaks, and say how
+     * much was left out
+     */
+    private static String truncate(String observation, int maxChars) {
+        if (observation.length() <= maxChars) {
+            return observation;
+        }
+        String note = " ... [" + observation.length() + " more characters elided]";
+        int keep = Math.max(0, maxChars - note.length());
+        return observation.substring(0, keep).stripTrailing()
+                + " ... [" + (observation.length() - keep) + " more characters elided]";
+    }
+
+    /**
+     * A completed step
+     *
+     * @param thought The reasoning, or null
+     * @param action The tool called
+     * @param actionInput The tool arguments
+     * @param observation The tool result
+     */
+    public record Step(String thought, String action, String actionInput, String observation) {
+    }
+}
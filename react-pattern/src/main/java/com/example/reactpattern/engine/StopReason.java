@@ -0,0 +1,15 @@
+package com.example.reactpattern.engine;
+
+/**
+ * Reason why a ReAct episode stopped
+ */
+public enum StopReason {
+    /** The model gave a final answer */
+    FINAL_ANSWER,
+    /** The maximum number of steps was reached without a final answer */
+    MAX_STEPS,
+    /** The wall-clock deadline passed before a final answer */
+    DEADLINE_EXCEEDED,
+    /** The token budget left no room for another step */
+    TOKEN_BUDGET_EXHAUSTED
+}
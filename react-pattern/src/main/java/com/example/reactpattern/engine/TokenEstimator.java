@@ -0,0 +1,21 @@
+package com.example.reactpattern.engine;
+
+/**
+ * Rough token count of a text, for budgeting prompts before they are sent
+ */
+final class TokenEstimator {
+
+    /** Characters per token of typical English text with common tokenizers */
+    static final int CHARS_PER_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    /**
+     * @param text The text, may be null
+     * @return The estimated number of tokens
+     */
+    static int estimate(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.reactpattern.engine;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A model turn in the ReAct text protocol, split into its labelled sections
+ *
+ * @param thought The reasoning, or null
+ * @param action The name of the tool to call, or null
+ * @param actionInput The tool arguments, or null
+ * @param finalAnswer The final answer, or null
+ */
+public record Turn(String thought, String action, String actionInput, String finalAnswer) {
+
+    private static final Pattern LABEL = Pattern.compile(
+            "(?im)^[ \\t*]*(thought|action input|action|final answer|observation)[ \\t*]*:\\**");
+    private static final Pattern TOOL_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    /**
+     * Parse a model reply. Text before the first label counts as thought. Anything from an "Observation:" label on
+     * is dropped, since observations come from the tools, not from the model.
+     *
+     * @param reply The model reply
+     * @return The parsed turn; a reply with neither an action nor a final answer is taken as the final answer
+     */
+    public static Turn parse(String reply) {
+        String thought = null;
+        String action = null;
+        String actionInput = null;
+        String finalAnswer = null;
+
+        Matcher matcher = LABEL.matcher(reply);
+        String label = "thought";
+        int sectionStart = 0;
+        boolean more = true;
+        while (more) {
+            more = matcher.find();
+            String content = reply.substring(sectionStart, more ? matcher.start() : reply.length()).trim();
+            switch (label) {
+                case "thought" -> thought = join(thought, content);
+                case "action" -> action = action != null ? action : toolName(content);
+                case "action input" -> actionInput = actionInput != null ? actionInput : stripCodeFence(content);
+                case "final answer" -> finalAnswer = finalAnswer != null ? finalAnswer : content;
+                default -> { }
+            }
+            if (more) {
+                label = matcher.group(1).toLowerCase(Locale.ROOT);
+                sectionStart = matcher.end();
+                more = !label.equals("observation");
+            }
+        }
+
+        if (finalAnswer == null && action == null) {
+            return new Turn(null, null, null, reply.trim());
+        }
+        return new Turn(thought, finalAnswer != null ? null : action, finalAnswer != null ? null : actionInput,
+                finalAnswer);
+    }
+
+    private static String join(String previous, String content) {
+        if (content.isEmpty()) {
+            return previous;
+        }
+        return previous == null ? content : previous + "\n" + content;
+    }
+
+    private static String toolName(String content) {
+        Matcher matcher = TOOL_NAME.matcher(content);
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    private static String stripCodeFence(String content) {
+        String stripped = content;
+        if (stripped.startsWith("```")) {
+            int firstLineEnd = stripped.indexOf('\n');
+            stripped = firstLineEnd < 0 ? "" : stripped.substring(firstLineEnd + 1);
+        }
+        if (stripped.endsWith("```")) {
+            stripped = stripped.substring(0, stripped.length() - 3);
+        }
+        return stripped.trim();
+    }
+}
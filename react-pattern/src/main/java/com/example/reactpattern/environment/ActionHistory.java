@@ -0,0 +1,204 @@
+package com.example.reactpattern.environment;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Fixed-capacity ring buffer of performed actions.
+ * <p>
+ * Every action gets a monotonically increasing sequence number, starting at 1, and a timestamp. Once the buffer is
+ * full, each new action overwrites the oldest one, so memory stays constant however long a session runs.
+ * Retrieving a page or the actions since a sequence number indexes straight into the ring, so it costs O(page)
+ * regardless of how many actions were performed.
+ * <p>
+ * If a spill file is configured, entries are written to it before they are overwritten. Writes happen in blocks of
+ * half the capacity, each appended as a separate gzip member; standard gzip readers read such a file as one
+ * stream. Each line has the form {@code sequence<TAB>epochMillis<TAB>action}. A block that cannot be written is
+ * logged and lost, and the history remembers that its archive is incomplete.
+ * <p>
+ * Not thread-safe; {@link SessionEnvironment} guards it with its lock.
+ */
+public class ActionHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActionHistory.class);
+
+    private final String[] actions;
+    private final long[] timestamps;
+    private final Path spillFile;
+    private long nextSequence = 1;
+    private long spilledThrough;
+    private boolean archived;
+    private boolean lost;
+    private boolean discarded;
+
+    /**
+     * @param capacity Number of most recent actions kept in memory
+     * @param spillFile File to append evicted actions to, or null to discard them
+     */
+    public ActionHistory(int capacity, Path spillFile) {
+        this.actions = new String[capacity];
+        this.timestamps = new long[capacity];
+        this.spillFile = spillFile;
+    }
+
+    /**
+     * Record an action
+     *
+     * @param action The action
+     * @return Its sequence number
+     */
+    public long record(String action) {
+        long sequence = nextSequence;
+        if (sequence > actions.length && sequence - actions.length > spilledThrough) {
+            // The oldest entry is about to be overwritten
+            spill();
+        }
+        int slot = slot(sequence);
+        actions[slot] = action;
+        timestamps[slot] = System.currentTimeMillis();
+        nextSequence++;
+        return sequence;
+    }
+
+    /**
+     * Get a page of the retained actions, counting back from the most recent
+     *
+     * @param page The page, 1 being the most recent actions
+     * @param pageSize Number of actions per page
+     * @return The actions of the page, oldest first; empty if the page lies beyond the retained actions
+     */
+    public List<Entry> page(int page, int pageSize) {
+        long last = lastSequence() - (long) (page - 1) * pageSize;
+        long first = Math.max(firstRetainedSequence(), last - pageSize + 1);
+        return range(first, last);
+    }
+
+    /**
+     * Get the retained actions performed after a given sequence number
+     *
+     * @param sequence The last sequence number already seen, 0 for everything
+     * @param limit Maximum number of actions to return
+     * @return Up to {@code limit} actions, oldest first
+     */
+    public List<Entry> since(long sequence, int limit) {
+        long first = Math.max(firstRetainedSequence(), sequence + 1);
+        return range(first, Math.min(lastSequence(), first + limit - 1));
+    }
+
+    /**
+     * @return The sequence number of the most recent action, 0 if none
+     */
+    public long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * @return The sequence number of the oldest action still in memory
+     */
+    public long firstRetainedSequence() {
+        return Math.max(1, nextSequence - actions.length);
+    }
+
+    /**
+     * @return What happened to the actions no longer in memory
+     */
+    public Archive archive() {
+        if (!archived) {
+            return Archive.NONE;
+        }
+        return lost ? Archive.PARTIAL : Archive.COMPLETE;
+    }
+
+    /**
+     * Delete the spill file and stop spilling, e.g. when the session is evicted
+     */
+    public void discard() {
+        discarded = true;
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            logger.warn("Failed to delete action history spill file {}", spillFile, e);
+        }
+    }
+
+    private List<Entry> range(long first, long last) {
+        List<Entry> entries = new ArrayList<>((int) Math.max(0, last - first + 1));
+        for (long sequence = first; sequence <= last; sequence++) {
+            int slot = slot(sequence);
+            entries.add(new Entry(sequence, timestamps[slot], actions[slot]));
+        }
+        return entries;
+    }
+
+    private int slot(long sequence) {
+        return (int) ((sequence - 1) % actions.length);
+    }
+
+    /**
+     * Append the oldest half of the ring that is not yet on disk to the spill file as one gzip member
+     */
+    private void spill() {
+        long first = spilledThrough + 1;
+        long last = Math.min(lastSequence(), first + Math.max(1, actions.length / 2) - 1);
+        // Past this point the entries are overwritten, whether or not they reach the file
+        spilledThrough = last;
+        if (spillFile == null || discarded) {
+            lost = true;
+            return;
+        }
+        try {
+            if (spillFile.getParent() != null) {
+                Files.createDirectories(spillFile.getParent());
+            }
+            try (OutputStream file = Files.newOutputStream(spillFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                 Writer writer = new OutputStreamWriter(new GZIPOutputStream(file), StandardCharsets.UTF_8)) {
+                for (Entry entry : range(first, last)) {
+                    writer.write(entry.sequence() + "\t" + entry.timestampMillis() + "\t"
+                            + entry.action().replace('\t', ' ').replace('\n', ' ') + "\n");
+                }
+            }
+            archived = true;
+        } catch (IOException e) {
+            // Spilling is best effort; the entries are dropped as they would be without a spill file
+            logger.warn("Failed to spill actions #{} to #{} to {}", first, last, spillFile, e);
+            lost = true;
+        }
+    }
+
+    /**
+     * Whether the actions no longer in memory can still be found in the spill file
+     */
+    public enum Archive {
+        /** None of them were written */
+        NONE,
+        /** Some were written, but at least one block could not be */
+        PARTIAL,
+        /** All of them were written */
+        COMPLETE
+    }
+
+    /**
+     * A recorded action
+     *
+     * @param sequence The sequence number
+     * @param timestampMillis When the action was performed, in epoch milliseconds
+     * @param action The action
+     */
+    public record Entry(long sequence, long timestampMillis, String action) {
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.reactpattern.environment;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Table of environment commands keyed by verb phrase ("move to", "pick up", ...), compiled into a prefix trie.
+ * <p>
+ * An action is dispatched in a single pass over its characters, ignoring case and treating runs of whitespace and
+ * punctuation as one space. The longest registered verb that ends at a word boundary wins, and the rest of the action is its
+ * argument. No intermediate strings are created until the argument is extracted. New verbs are added with
+ * {@link #register}, without touching the dispatch logic. Register them during startup, before actions run.
+ */
+@Component
+public class CommandDispatcher {
+
+    private final Node root = new Node();
+
+    public CommandDispatcher() {
+        register(SessionEnvironment::moveTo, "move to", "go to", "walk to");
+        register(SessionEnvironment::pickUp, "pick up", "take", "grab");
+        register(SessionEnvironment::drop, "drop", "put down");
+        register((environment, argument) -> "The current weather is " + environment.weather() + ".",
+                "check weather", "check the weather", "weather", "what's the weather", "what is the weather");
+        register((environment, argument) -> "The current time is " + environment.time() + ".",
+                "check time", "check the time", "time", "what time is it");
+    }
+
+    /**
+     * Register a command under one or more verb phrases
+     *
+     * @param command The command to run
+     * @param verbs The verb phrases that invoke it, matched case-insensitively at the start of an action
+     */
+    public synchronized void register(Command command, String... verbs) {
+        for (String verb : verbs) {
+            Node node = root;
+            String normalized = verb.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+            for (int i = 0; i < normalized.length(); i++) {
+                node = node.childOrCreate(normalized.charAt(i));
+            }
+            node.command = command;
+        }
+    }
+
+    /**
+     * Run the command an action starts with
+     *
+     * @param environment The environment to act on
+     * @param action The action, e.g. "Pick up book"
+     * @return The command's result, or a default response if no verb matches
+     */
+    public String dispatch(SessionEnvironment environment, String action) {
+        int length = action.length();
+        int position = skipSeparators(action, 0);
+        Node node = root;
+        Command matched = null;
+        int argumentStart = -1;
+
+        while (node != null) {
+            boolean atBoundary = position == length || isSeparator(action.charAt(position));
+            if (node.command != null && atBoundary) {
+                matched = node.command;
+                argumentStart = position;
+            }
+            if (position == length) {
+                break;
+            }
+            if (atBoundary) {
+                node = node.child(' ');
+                position = skipSeparators(action, position);
+            } else {
+                node = node.child(Character.toLowerCase(action.charAt(position)));
+                position++;
+            }
+        }
+
+        if (matched == null) {
+            // Default response for unrecognized actions
+            return "Action performed: " + action + ". No specific outcome.";
+        }
+        int argumentEnd = length;
+        while (argumentEnd > argumentStart && isSeparator(action.charAt(argumentEnd - 1))) {
+            argumentEnd--;
+        }
+        int start = skipSeparators(action, argumentStart);
+        String argument = start < argumentEnd ? action.substring(start, argumentEnd).toLowerCase(Locale.ROOT) : "";
+        return matched.execute(environment, argument);
+    }
+
+    private static int skipSeparators(String action, int position) {
+        while (position < action.length() && isSeparator(action.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Whitespace and punctuation separate words; apostrophes belong to them ("what's")
+     */
+    private static boolean isSeparator(char c) {
+        return !Character.isLetterOrDigit(c) && c != '\'';
+    }
+
+    /**
+     * An environment command. It runs while the session's environment is locked.
+     */
+    @FunctionalInterface
+    public interface Command {
+
+        /**
+         * @param environment The environment to act on
+         * @param argument The rest of the action after the verb, lowercased and without surrounding punctuation;
+         *                 may be empty
+         * @return The result of the command
+         */
+        String execute(SessionEnvironment environment, String argument);
+    }
+
+    /**
+     * Trie node; children are kept in small parallel arrays, since verbs share few branches
+     */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Command command;
+
+        Node child(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char key) {
+            Node child = child(key);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.reactpattern.environment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of per-session environments.
+ * <p>
+ * Environments are created on first use and kept in a {@link ConcurrentHashMap}, so sessions never block each
+ * other. A background sweep evicts sessions that have been idle for longer than the idle timeout. When the
+ * session limit is exceeded, sessions are evicted immediately, so memory stays bounded even under a burst of
+ * abandoned sessions. The victims are picked by a clock (second-chance) approximation of LRU: sessions wait in
+ * a queue in creation order, and the one at the head is evicted unless it was used since it last reached the
+ * head, in which case it goes to the back. That costs amortized O(1) per eviction and takes no lock.
+ */
+@Component
+public class EnvironmentSessions implements AutoCloseable {
+
+    private final ConcurrentHashMap<String, SessionEnvironment> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ClockEntry> clock = new ConcurrentLinkedQueue<>();
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final ScheduledExecutorService sweeper;
+    private final LongAdder evictions = new LongAdder();
+    private final CommandDispatcher dispatcher;
+    private final int historyCapacity;
+    private final Path historySpillDir;
+
+    public EnvironmentSessions(CommandDispatcher dispatcher,
+                               @Value("${react.sessions.idle-timeout:PT30M}") Duration idleTimeout,
+                               @Value("${react.sessions.max-sessions:10000}") int maxSessions,
+                               @Value("${react.history.capacity:256}") int historyCapacity,
+                               @Value("${react.history.spill-dir:}") String historySpillDir) {
+        this.dispatcher = dispatcher;
+        this.historyCapacity = historyCapacity;
+        this.historySpillDir = historySpillDir.isBlank() ? null : Path.of(historySpillDir);
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxSessions = maxSessions;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "environment-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1000, idleTimeout.toMillis() / 4);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the environment of a session, creating it on first use
+     *
+     * @param sessionId The session id
+     * @return The session's environment
+     */
+    public SessionEnvironment get(String sessionId) {
+        SessionEnvironment environment = sessions.get(sessionId);
+        if (environment != null) {
+            environment.touch();
+            return environment;
+        }
+        // A new session starts without its second chance, so one-off sessions are the first to go
+        environment = sessions.computeIfAbsent(sessionId, id -> {
+            SessionEnvironment created = newEnvironment(id);
+            clock.add(new ClockEntry(id, created));
+            return created;
+        });
+        if (sessions.size() > maxSessions) {
+            evictOverflow(sessionId);
+        }
+        return environment;
+    }
+
+    /**
+     * @return The number of live sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return The number of sessions evicted so far
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private SessionEnvironment newEnvironment(String sessionId) {
+        Path spillFile = null;
+        if (historySpillDir != null) {
+            // Keep file names safe; the hash keeps ids that sanitize alike apart
+            String name = sessionId.replaceAll("[^A-Za-z0-9_-]", "_") + "-" + Integer.toHexString(sessionId.hashCode());
+            spillFile = historySpillDir.resolve(name + ".history.gz");
+        }
+        return new SessionEnvironment(dispatcher, new ActionHistory(historyCapacity, spillFile));
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, SessionEnvironment> entry : sessions.entrySet()) {
+            if (now - entry.getValue().lastAccessNanos() > idleTimeoutNanos) {
+                evict(entry.getKey(), entry.getValue());
+            }
+        }
+        // Drop the clock entries of sessions evicted since the last sweep, so the queue tracks the live sessions
+        clock.removeIf(entry -> !entry.isLive(sessions));
+    }
+
+    /**
+     * Evict sessions from the head of the clock until the limit holds again. Each session is passed over at most
+     * once before its bit is cleared, so one call looks at no more than about twice the number of sessions, and
+     * a few on average.
+     */
+    private void evictOverflow(String keep) {
+        long budget = 2L * sessions.size() + 1;
+        while (sessions.size() > maxSessions && budget-- > 0) {
+            ClockEntry entry = clock.poll();
+            if (entry == null) {
+                return;
+            }
+            if (!entry.isLive(sessions)) {
+                // Already evicted by the idle sweep
+                continue;
+            }
+            if (entry.sessionId().equals(keep) || entry.environment().clearReferenced()) {
+                clock.add(entry);
+            } else {
+                evict(entry.sessionId(), entry.environment());
+            }
+        }
+    }
+
+    private void evict(String sessionId, SessionEnvironment environment) {
+        if (sessions.remove(sessionId, environment)) {
+            evictions.increment();
+            // Nobody can ask for the archived actions of an evicted session
+            environment.discardHistory();
+        }
+    }
+
+    private record ClockEntry(String sessionId, SessionEnvironment environment) {
+
+        boolean isLive(Map<String, SessionEnvironment> sessions) {
+            return sessions.get(sessionId) == environment;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.reactpattern.environment;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulated world of one session. Sessions never share state, so their actions run without contending;
+ * within a session, actions are serialized on the environment itself.
+ */
+public class SessionEnvironment {
+
+    // Replay ignores these times when it compares observations; see Trajectory.sameObservation
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private final CommandDispatcher dispatcher;
+    private String location = "home";
+    private final String weather = "sunny";
+    private final String time = "morning";
+    // Hashed multiset: item name to count, in the order items were first picked up
+    private final Map<String, Integer> inventory = new LinkedHashMap<>();
+    private final ActionHistory actionHistory;
+
+    private volatile long lastAccessNanos = System.nanoTime();
+    // Second-chance bit for the eviction clock in EnvironmentSessions
+    private volatile boolean referenced;
+
+    public SessionEnvironment(CommandDispatcher dispatcher, ActionHistory actionHistory) {
+        this.dispatcher = dispatcher;
+        this.actionHistory = actionHistory;
+    }
+
+    /**
+     * Get the current state of the environment
+     *
+     * @return Environment state as a formatted string
+     */
+    public synchronized String describe() {
+        StringBuilder state = new StringBuilder("Current Environment State:\n");
+        
+        state.append("Location: ").append(location).append("\n");
+        state.append("Weather: ").append(weather).append("\n");
+        state.append("Time: ").append(time).append("\n");
+        
+        state.append("Inventory: ");
+        if (inventory.isEmpty()) {
+            state.append("empty");
+        } else {
+            String separator = "";
+            for (Map.Entry<String, Integer> item : inventory.entrySet()) {
+                state.append(separator).append(item.getKey());
+                if (item.getValue() > 1) {
+                    state.append(" (x").append(item.getValue()).append(")");
+                }
+                separator = ", ";
+            }
+        }
+        
+        return state.toString();
+    }
+
+    /**
+     * Perform an action in the environment
+     *
+     * @param action The action to perform
+     * @return Result of the action
+     */
+    public synchronized String perform(String action) {
+        actionHistory.record(action.trim());
+        return dispatcher.dispatch(this, action);
+    }
+
+    /**
+     * Perform several actions in order, without other actions of the session interleaving
+     *
+     * @param actions The actions to perform
+     * @return The result of each action, in order
+     */
+    public synchronized List<String> performAll(List<String> actions) {
+        List<String> results = new ArrayList<>(actions.size());
+        for (String action : actions) {
+            results.add(perform(action));
+        }
+        return results;
+    }
+
+    /**
+     * Move to a location; the building blocks below are what {@link CommandDispatcher} commands call
+     *
+     * @param newLocation The destination
+     * @return The result of the move
+     */
+    public String moveTo(String newLocation) {
+        if (newLocation.isEmpty()) {
+            return "Where do you want to go?";
+        }
+        String oldLocation = location;
+        location = newLocation;
+        return "Moved from " + oldLocation + " to " + newLocation + ".";
+    }
+
+    public String pickUp(String item) {
+        if (item.isEmpty()) {
+            return "What do you want to pick up?";
+        }
+        inventory.merge(item, 1, Integer::sum);
+        return "Added " + item + " to inventory.";
+    }
+
+    public String drop(String item) {
+        if (item.isEmpty()) {
+            return "What do you want to drop?";
+        }
+        Integer count = inventory.get(item);
+        if (count == null) {
+            return "You don't have " + item + " in your inventory.";
+        }
+        if (count == 1) {
+            inventory.remove(item);
+        } else {
+            inventory.put(item, count - 1);
+        }
+        return "Removed " + item + " from inventory.";
+    }
+
+    public String location() {
+        return location;
+    }
+
+    public String weather() {
+        return weather;
+    }
+
+    public String time() {
+        return time;
+    }
+
+    /**
+     * Get a page of the action history
+     *
+     * @param page The page, 1 being the most recent actions
+     * @param pageSize Number of actions per page
+     * @return The actions of the page as a formatted string
+     */
+    public synchronized String historyPage(int page, int pageSize) {
+        if (actionHistory.lastSequence() == 0) {
+            return "No actions have been performed yet.";
+        }
+        
+        List<ActionHistory.Entry> entries = actionHistory.page(page, pageSize);
+        if (entries.isEmpty()) {
+            return ("Page " + page + " is beyond the retained action history. " + evictionNote()).trim();
+        }
+        
+        StringBuilder history = new StringBuilder("Action History (page " + page + "):\n");
+        appendEntries(history, entries);
+        if (entries.get(0).sequence() > actionHistory.firstRetainedSequence()) {
+            history.append("Older actions are on page ").append(page + 1).append(".\n");
+        }
+        history.append(evictionNote());
+        return history.toString();
+    }
+
+    /**
+     * Get the actions performed after a sequence number
+     *
+     * @param sequence The last sequence number already seen, 0 for the oldest retained action
+     * @param limit Maximum number of actions to return
+     * @return The actions as a formatted string
+     */
+    public synchronized String historySince(long sequence, int limit) {
+        List<ActionHistory.Entry> entries = actionHistory.since(sequence, limit);
+        if (entries.isEmpty()) {
+            return "No actions after #" + sequence + ".";
+        }
+        
+        StringBuilder history = new StringBuilder("Actions after #" + sequence + ":\n");
+        if (entries.get(0).sequence() > sequence + 1) {
+            history.append(evictionNote()).append("\n");
+        }
+        appendEntries(history, entries);
+        long last = entries.get(entries.size() - 1).sequence();
+        if (last < actionHistory.lastSequence()) {
+            history.append("More actions follow; continue after #").append(last).append(".\n");
+        }
+        return history.toString();
+    }
+
+    private void appendEntries(StringBuilder history, List<ActionHistory.Entry> entries) {
+        for (ActionHistory.Entry entry : entries) {
+            history.append("#").append(entry.sequence())
+                    .append(" [").append(TIME_FORMAT.format(Instant.ofEpochMilli(entry.timestampMillis()))).append("] ")
+                    .append(entry.action()).append("\n");
+        }
+    }
+
+    private String evictionNote() {
+        long first = actionHistory.firstRetainedSequence();
+        if (first <= 1) {
+            return "";
+        }
+        // The spill file's location is a server detail and never shown
+        return "Actions before #" + first + switch (actionHistory.archive()) {
+            case NONE -> " are no longer retained.";
+            case PARTIAL -> " are only partly archived; some could not be saved.";
+            case COMPLETE -> " are archived.";
+        };
+    }
+
+    /**
+     * Delete the session's archived history; called once the session has been evicted
+     */
+    synchronized void discardHistory() {
+        actionHistory.discard();
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+        referenced = true;
+    }
+
+    /**
+     * @return Whether the session was used since the last call
+     */
+    boolean clearReferenced() {
+        boolean wasReferenced = referenced;
+        referenced = false;
+        return wasReferenced;
+    }
+
+    long lastAccessNanos() {
+        return lastAccessNanos;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.reactpattern.execution;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Store for memoized tool results, shared by all requests until they expire
+ */
+@Component
+public class ToolCache {
+
+    private final ConcurrentHashMap<String, ToolEntries> tools = new ConcurrentHashMap<>();
+
+    /**
+     * Look up a cached result
+     *
+     * @param toolName The tool name
+     * @param key The normalized arguments
+     * @return The cached result, or null if absent or expired
+     */
+    public String get(String toolName, String key) {
+        ToolEntries entries = entries(toolName);
+        Entry entry = entries.results.get(key);
+
+        if (entry == null || System.nanoTime() - entry.expiresAt >= 0) {
+            entries.misses.increment();
+            return null;
+        }
+        entries.hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Store a result
+     *
+     * @param toolName The tool name
+     * @param key The normalized arguments
+     * @param value The tool result
+     * @param ttlNanos How long the result stays valid
+     * @param maxEntries Maximum number of entries for the tool
+     */
+    public void put(String toolName, String key, String value, long ttlNanos, int maxEntries) {
+        Map<String, Entry> results = entries(toolName).results;
+        if (results.size() >= maxEntries) {
+            long now = System.nanoTime();
+            results.values().removeIf(entry -> now - entry.expiresAt >= 0);
+            if (results.size() >= maxEntries) {
+                return;
+            }
+        }
+        results.put(key, new Entry(value, System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Get cache statistics for every tool seen so far
+     *
+     * @return Statistics by tool name
+     */
+    public Map<String, ToolCacheStats> stats() {
+        Map<String, ToolCacheStats> stats = new TreeMap<>();
+        tools.forEach((name, entries) -> stats.put(name, new ToolCacheStats(
+                entries.hits.sum(), entries.misses.sum(), entries.results.size())));
+        return stats;
+    }
+
+    private ToolEntries entries(String toolName) {
+        return tools.computeIfAbsent(toolName, name -> new ToolEntries());
+    }
+
+    private record Entry(String value, long expiresAt) {
+    }
+
+    private static final class ToolEntries {
+        final ConcurrentHashMap<String, Entry> results = new ConcurrentHashMap<>();
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.reactpattern.execution;
+
+/**
+ * Point-in-time cache statistics of one tool
+ */
+public class ToolCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final int entries;
+
+    public ToolCacheStats(long hits, long misses, int entries) {
+        this.hits = hits;
+        this.misses = misses;
+        this.entries = entries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Number of results currently cached
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    public double getHitRatio() {
+        long calls = hits + misses;
+        return calls == 0 ? 0.0 : (double) hits / calls;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.reactpattern.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbacks;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the tool callbacks handed to the model, adding memoization to {@code @Tool} methods
+ * annotated with {@link CacheableTool}.
+ * <p>
+ * The ReAct tools are read-only, so unlike the tool-use module there are no invalidating tools
+ * and no request-scoped results here.
+ */
+@Component
+public class ToolCallbackFactory {
+
+    private final ToolCache toolCache;
+    private final ObjectMapper objectMapper;
+
+    public ToolCallbackFactory(ToolCache toolCache, ObjectMapper objectMapper) {
+        this.toolCache = toolCache;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Create callbacks for every {@code @Tool} method of the given objects
+     *
+     * @param toolObjects Objects with {@code @Tool}-annotated methods
+     * @return One callback per tool method
+     */
+    public ToolCallback[] create(Object... toolObjects) {
+        Map<String, Method> toolMethods = new HashMap<>();
+        for (Object toolObject : toolObjects) {
+            for (Method method : toolObject.getClass().getMethods()) {
+                Tool tool = method.getAnnotation(Tool.class);
+                if (tool != null) {
+                    toolMethods.put(tool.name().isEmpty() ? method.getName() : tool.name(), method);
+                }
+            }
+        }
+
+        List<ToolCallback> callbacks = new ArrayList<>();
+        for (ToolCallback callback : ToolCallbacks.from(toolObjects)) {
+            Method method = toolMethods.get(callback.getToolDefinition().name());
+            CacheableTool cacheable = method == null ? null : method.getAnnotation(CacheableTool.class);
+
+            if (cacheable != null) {
+                callbacks.add(new MemoizingToolCallback(callback, toolCache, objectMapper, cacheable));
+            } else {
+                callbacks.add(callback);
+            }
+        }
+        return callbacks.toArray(new ToolCallback[0]);
+    }
+}
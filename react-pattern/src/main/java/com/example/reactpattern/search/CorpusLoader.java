@@ -0,0 +1,65 @@
+package com.example.reactpattern.search;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Bulk loads documents from a local corpus directory.
+ * <p>
+ * Files are read recursively in path order. Each {@code .txt} or {@code .md} file is one document, titled by its
+ * file name without the extension. Each line of a {@code .tsv} file is one document in the form
+ * {@code title<TAB>text}, which suits large corpora better than one file per document. Other files are ignored.
+ */
+public final class CorpusLoader {
+
+    private CorpusLoader() {
+    }
+
+    /**
+     * Add every document in a directory
+     *
+     * @param directory The corpus directory
+     * @param documents Receives the title and text of each document
+     * @return The number of documents loaded
+     * @throws IOException If the directory or a file cannot be read
+     */
+    public static int load(Path directory, BiConsumer<String, String> documents) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(Files::isRegularFile).sorted().toList();
+        }
+
+        int loaded = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tsv")) {
+                loaded += loadTsv(file, documents);
+            } else if (name.endsWith(".txt") || name.endsWith(".md")) {
+                documents.accept(name.substring(0, name.lastIndexOf('.')), Files.readString(file, StandardCharsets.UTF_8));
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private static int loadTsv(Path file, BiConsumer<String, String> documents) throws IOException {
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab > 0 && tab < line.length() - 1) {
+                    documents.accept(line.substring(0, tab), line.substring(tab + 1));
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.reactpattern.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory inverted index with BM25 ranking.
+ * <p>
+ * Each term maps to a postings list of ascending document ids and the term frequency in each document, stored
+ * as two parallel {@code int[]}. A query scores only the documents in the postings of its terms
+ * (term-at-a-time), accumulating their scores in a hash table sized to those postings, and keeps the best
+ * {@code k} in a small bounded selection, so lookups cost time and memory proportional to the matching postings
+ * rather than to the corpus size. Ties are broken by document id, which makes results
+ * deterministic.
+ */
+public final class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int SNIPPET_MAX_CHARS = 240;
+
+    private final Map<String, Integer> termIds;
+    private final int[][] postingDocs;
+    private final int[][] postingFreqs;
+    private final int[] docLengths;
+    private final double averageDocLength;
+    private final String[] titles;
+    private final String[] texts;
+
+    private InvertedIndex(Map<String, Integer> termIds, int[][] postingDocs, int[][] postingFreqs, int[] docLengths,
+                          String[] titles, String[] texts) {
+        this.termIds = termIds;
+        this.postingDocs = postingDocs;
+        this.postingFreqs = postingFreqs;
+        this.docLengths = docLengths;
+        this.titles = titles;
+        this.texts = texts;
+        this.averageDocLength = docLengths.length == 0 ? 0 : Arrays.stream(docLengths).asLongStream().sum()
+                / (double) docLengths.length;
+    }
+
+    /**
+     * @return A builder for a new index
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return The number of indexed documents
+     */
+    public int size() {
+        return docLengths.length;
+    }
+
+    /**
+     * @return The number of distinct terms
+     */
+    public int termCount() {
+        return termIds.size();
+    }
+
+    /**
+     * Rank the documents for a query
+     *
+     * @param query The free-text query
+     * @param k Maximum number of results
+     * @return The best matching documents, highest score first
+     */
+    public List<SearchHit> search(String query, int k) {
+        Set<String> queryTerms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        List<Integer> terms = new ArrayList<>();
+        long candidatePostings = 0;
+        for (String term : queryTerms) {
+            Integer termId = termIds.get(term);
+            if (termId != null) {
+                terms.add(termId);
+                candidatePostings += postingDocs[termId].length;
+            }
+        }
+        if (terms.isEmpty() || k <= 0) {
+            return List.of();
+        }
+
+        int documentCount = docLengths.length;
+        // Never more distinct documents than postings, nor than documents in the corpus
+        Scores scores = new Scores((int) Math.min(candidatePostings, documentCount));
+        for (int termId : terms) {
+            int[] docs = postingDocs[termId];
+            int[] freqs = postingFreqs[termId];
+            double idf = Math.log(1 + (documentCount - docs.length + 0.5) / (docs.length + 0.5));
+            for (int i = 0; i < docs.length; i++) {
+                int doc = docs[i];
+                int tf = freqs[i];
+                double norm = K1 * (1 - B + B * docLengths[doc] / averageDocLength);
+                scores.add(doc, (float) (idf * tf * (K1 + 1) / (tf + norm)));
+            }
+        }
+
+        TopK top = new TopK(Math.min(k, documentCount));
+        for (int i = 0; i < scores.size; i++) {
+            top.offer(scores.docs[i], scores.values[i]);
+        }
+
+        List<SearchHit> hits = new ArrayList<>(top.size);
+        for (int i = 0; i < top.size; i++) {
+            int doc = top.docs[i];
+            hits.add(new SearchHit(titles[doc], top.scores[i], snippet(texts[doc], queryTerms)));
+        }
+        return hits;
+    }
+
+    /**
+     * Pick the sentence that contains the most distinct query terms, the earliest one on ties
+     */
+    private static String snippet(String text, Set<String> queryTerms) {
+        String best = text;
+        int bestMatches = -1;
+        for (String sentence : text.split("(?<=[.!?])\\s+")) {
+            Set<String> sentenceTerms = new LinkedHashSet<>(Tokenizer.tokenize(sentence));
+            sentenceTerms.retainAll(queryTerms);
+            if (sentenceTerms.size() > bestMatches) {
+                best = sentence;
+                bestMatches = sentenceTerms.size();
+            }
+        }
+        return best.length() <= SNIPPET_MAX_CHARS ? best : best.substring(0, SNIPPET_MAX_CHARS) + "...";
+    }
+
+    /**
+     * Score accumulator for the documents of one query: an open-addressing hash table from document id to the
+     * document's slot in two dense arrays, in order of first occurrence
+     */
+    private static final class Scores {
+
+        private final int[] slots;
+        private final int mask;
+        private final int shift;
+        private final int[] docs;
+        private final float[] values;
+        private int size;
+
+        Scores(int maxDocuments) {
+            // A power of two at least twice the number of documents keeps the probe sequences short
+            int capacity = Integer.highestOneBit(Math.max(1, maxDocuments) * 2 - 1) << 1;
+            slots = new int[capacity];
+            mask = capacity - 1;
+            shift = Integer.SIZE - Integer.numberOfTrailingZeros(capacity);
+            docs = new int[maxDocuments];
+            values = new float[maxDocuments];
+        }
+
+        void add(int doc, float score) {
+            // Fibonacci hashing: the high bits of the product spread consecutive ids across the table
+            int slot = (doc * 0x9E3779B9) >>> shift;
+            // Slots hold the dense index plus one, so zero marks a free slot
+            while (slots[slot] != 0) {
+                int index = slots[slot] - 1;
+                if (docs[index] == doc) {
+                    values[index] += score;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            docs[size] = doc;
+            values[size] = score;
+            slots[slot] = ++size;
+        }
+    }
+
+    /**
+     * Bounded selection of the best scoring documents, kept sorted by descending score and then ascending id
+     */
+    private static final class TopK {
+
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        TopK(int k) {
+            docs = new int[k];
+            scores = new float[k];
+        }
+
+        void offer(int doc, float score) {
+            int capacity = docs.length;
+            if (size == capacity && !ranksBefore(doc, score, docs[size - 1], scores[size - 1])) {
+                return;
+            }
+            int position = size == capacity ? size - 1 : size++;
+            while (position > 0 && ranksBefore(doc, score, docs[position - 1], scores[position - 1])) {
+                docs[position] = docs[position - 1];
+                scores[position] = scores[position - 1];
+                position--;
+            }
+            docs[position] = doc;
+            scores[position] = score;
+        }
+
+        private static boolean ranksBefore(int doc, float score, int otherDoc, float otherScore) {
+            return score > otherScore || (score == otherScore && doc < otherDoc);
+        }
+    }
+
+    /**
+     * Accumulates documents and builds the postings. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private final List<IntList> postingDocs = new ArrayList<>();
+        private final List<IntList> postingFreqs = new ArrayList<>();
+        private final IntList docLengths = new IntList();
+        private final List<String> titles = new ArrayList<>();
+        private final List<String> texts = new ArrayList<>();
+        private final IntList documentTerms = new IntList();
+
+        private Builder() {
+        }
+
+        /**
+         * Add a document; its title is indexed together with its text
+         *
+         * @param title The document title
+         * @param text The document text
+         * @return This builder
+         */
+        public Builder add(String title, String text) {
+            int doc = titles.size();
+            documentTerms.clear();
+            Tokenizer.tokenize(title + " " + text, term -> documentTerms.add(termId(term)));
+
+            // Sorting the document's term ids groups repeats, so each run is one posting with its frequency
+            int[] ids = documentTerms.toArray();
+            Arrays.sort(ids);
+            for (int start = 0; start < ids.length; ) {
+                int end = start;
+                while (end < ids.length && ids[end] == ids[start]) {
+                    end++;
+                }
+                postingDocs.get(ids[start]).add(doc);
+                postingFreqs.get(ids[start]).add(end - start);
+                start = end;
+            }
+
+            docLengths.add(ids.length);
+            titles.add(title);
+            texts.add(text);
+            return this;
+        }
+
+        /**
+         * @return The number of documents added so far
+         */
+        public int size() {
+            return titles.size();
+        }
+
+        /**
+         * @return The immutable index
+         */
+        public InvertedIndex build() {
+            int termCount = postingDocs.size();
+            int[][] docs = new int[termCount][];
+            int[][] freqs = new int[termCount][];
+            for (int term = 0; term < termCount; term++) {
+                docs[term] = postingDocs.get(term).toArray();
+                freqs[term] = postingFreqs.get(term).toArray();
+            }
+            return new InvertedIndex(Map.copyOf(termIds), docs, freqs, docLengths.toArray(),
+                    titles.toArray(new String[0]), texts.toArray(new String[0]));
+        }
+
+        private int termId(String term) {
+            Integer id = termIds.get(term);
+            if (id == null) {
+                id = postingDocs.size();
+                termIds.put(term, id);
+                postingDocs.add(new IntList());
+                postingFreqs.add(new IntList());
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Growable {@code int} array used while building the postings
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.reactpattern.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Documents searched by the search tools: a few built-in samples plus the optional local corpus
+ */
+@Component
+public class KnowledgeBase {
+
+    private final List<KnowledgeDocument> documents;
+
+    public KnowledgeBase(@Value("${search.corpus.dir:}") String corpusDir) {
+        List<KnowledgeDocument> documents = new ArrayList<>();
+        
+        // Initialize with some sample data
+        documents.add(new KnowledgeDocument("spring ai", 
+            "Spring AI is an application framework for AI engineering. It provides a Spring-friendly API and abstractions " +
+            "for developing AI applications. It supports various AI models including OpenAI, Azure OpenAI, Anthropic, and more."));
+        
+        documents.add(new KnowledgeDocument("react pattern", 
+            "The ReAct pattern (Reasoning + Acting) is an AI agent design pattern that combines reasoning with action. " +
+            "It enables AI systems to reason about a problem, take actions to gather information or affect the environment, " +
+            "observe the results, and continue reasoning based on those observations."));
+        
+        documents.add(new KnowledgeDocument("large language models", 
+            "Large Language Models (LLMs) are advanced AI systems trained on vast amounts of text data. " +
+            "They can generate human-like text, translate languages, write different kinds of creative content, " +
+            "and answer questions in an informative way. Examples include GPT-4, Claude, and Llama."));
+        
+        if (!corpusDir.isBlank()) {
+            try {
+                CorpusLoader.load(Path.of(corpusDir), (title, text) -> documents.add(new KnowledgeDocument(title, text)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load search corpus from " + corpusDir, e);
+            }
+        }
+        this.documents = List.copyOf(documents);
+    }
+
+    /**
+     * @return The documents, in load order
+     */
+    public List<KnowledgeDocument> documents() {
+        return documents;
+    }
+}
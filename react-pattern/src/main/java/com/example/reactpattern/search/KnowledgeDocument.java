@@ -0,0 +1,10 @@
+package com.example.reactpattern.search;
+
+/**
+ * A document of the knowledge base
+ *
+ * @param title The document title
+ * @param text The document text
+ */
+public record KnowledgeDocument(String title, String text) {
+}
@@ -0,0 +1,11 @@
+package com.example.reactpattern.search;
+
+/**
+ * A ranked search result
+ *
+ * @param title The document title
+ * @param score The BM25 score
+ * @param snippet The passage of the document that best matches the query
+ */
+public record SearchHit(String title, double score, String snippet) {
+}
@@ -0,0 +1,56 @@
+package com.example.reactpattern.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Splits text into lowercase terms: runs of letters and digits, with common English stop words removed
+ */
+public final class Tokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "how", "in", "is", "it", "its",
+            "of", "on", "or", "that", "the", "this", "to", "was", "what", "when", "where", "which", "who",
+            "why", "with");
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Pass each term of a text to a consumer, in order of appearance
+     *
+     * @param text The text to tokenize
+     * @param terms Receives the terms
+     */
+    public static void tokenize(String text, Consumer<String> terms) {
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(term)) {
+                    terms.accept(term);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Get the terms of a text
+     *
+     * @param text The text to tokenize
+     * @return The terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, terms::add);
+        return terms;
+    }
+}
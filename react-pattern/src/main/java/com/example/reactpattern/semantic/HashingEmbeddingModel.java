@@ -0,0 +1,81 @@
+package com.example.reactpattern.semantic;
+
+import com.example.reactpattern.search.Tokenizer;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic local embedding model for offline use.
+ * <p>
+ * Each term and each character trigram of a term is hashed to a signed dimension (the hashing trick), so texts
+ * that share words or word stems ("plan", "planning") end up close together. Vectors are L2-normalized.
+ * This is no substitute for a learned embedding, but it needs no network, and the same text always
+ * gets the same vector.
+ */
+public class HashingEmbeddingModel implements EmbeddingModel {
+
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+
+    private final int dimensions;
+
+    public HashingEmbeddingModel(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<Embedding> embeddings = new ArrayList<>();
+        List<String> inputs = request.getInstructions();
+        for (int i = 0; i < inputs.size(); i++) {
+            embeddings.add(new Embedding(embed(inputs.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        Tokenizer.tokenize(text, term -> {
+            accumulate(vector, term, 1f);
+            String padded = "^" + term + "$";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                accumulate(vector, padded.substring(i, i + 3), TRIGRAM_WEIGHT);
+            }
+        });
+
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    private void accumulate(float[] vector, String feature, float weight) {
+        // Murmur-style finalizer spreads String.hashCode over the bits used for index and sign
+        int hash = feature.hashCode() * 0x9E3779B1;
+        hash ^= hash >>> 16;
+        vector[Math.floorMod(hash, dimensions)] += (hash & 0x40000000) == 0 ? weight : -weight;
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.reactpattern.semantic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World graph for approximate nearest-neighbour search by cosine similarity.
+ * <p>
+ * Vectors are normalized on insert and kept in {@link OffHeapVectors}, so similarity is a dot product. Only the
+ * graph links live on the heap, as one {@code int[]} per node and layer. Inserts are serialized and
+ * searches run concurrently under a read-write lock. The layer of each node is drawn from a seeded random
+ * source, so the same inserts always build the same graph.
+ *
+ * @see <a href="https://arxiv.org/abs/1603.09320">Malkov and Yashunin, Efficient and robust approximate nearest
+ * neighbor search using Hierarchical Navigable Small World graphs</a>
+ */
+public class HnswIndex {
+
+    private final OffHeapVectors vectors;
+    private final int maxConnections;
+    private final int maxConnectionsLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+    /** links.get(node)[layer] holds the neighbour count followed by the neighbour ids */
+    private final List<int[][]> links = new ArrayList<>();
+    private int entryPoint = -1;
+    private int topLayer = -1;
+
+    /**
+     * @param vectors Off-heap storage for the vectors, initially empty
+     * @param maxConnections Neighbours per node on the upper layers (M); layer 0 allows twice as many
+     * @param efConstruction Candidate list size while inserting; larger builds a better graph more slowly
+     */
+    public HnswIndex(OffHeapVectors vectors, int maxConnections, int efConstruction) {
+        this.vectors = vectors;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLayer0 = 2 * maxConnections;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(maxConnections);
+    }
+
+    /**
+     * Insert a vector
+     *
+     * @param vector The vector; it is normalized before it is stored
+     * @return The id of the vector, assigned in insertion order from 0
+     */
+    public int add(float[] vector) {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            int node = vectors.add(normalized);
+            int layer = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            int[][] nodeLinks = new int[layer + 1][];
+            for (int l = 0; l <= layer; l++) {
+                nodeLinks[l] = new int[capacity(l) + 1];
+            }
+            links.add(nodeLinks);
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                topLayer = layer;
+                return node;
+            }
+
+            int nearest = entryPoint;
+            for (int l = topLayer; l > layer; l--) {
+                nearest = greedyClosest(normalized, nearest, l);
+            }
+            long[] entryPoints = { key(vectors.dot(nearest, normalized), nearest) };
+            for (int l = Math.min(layer, topLayer); l >= 0; l--) {
+                long[] candidates = searchLayer(normalized, entryPoints, efConstruction, l);
+                int[] neighbours = selectNeighbours(candidates, maxConnections);
+                for (int neighbour : neighbours) {
+                    append(nodeLinks[l], neighbour);
+                    connect(neighbour, node, l);
+                }
+                entryPoints = candidates;
+            }
+
+            if (layer > topLayer) {
+                entryPoint = node;
+                topLayer = layer;
+            }
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate k nearest neighbours
+     *
+     * @param query The query vector
+     * @param k Number of neighbours
+     * @param ef Candidate list size; larger trades speed for recall
+     * @return The neighbours, most similar first
+     */
+    public List<Neighbour> search(float[] query, int k, int ef) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            int nearest = entryPoint;
+            for (int l = topLayer; l > 0; l--) {
+                nearest = greedyClosest(normalized, nearest, l);
+            }
+            long[] candidates = searchLayer(normalized, new long[] { key(vectors.dot(nearest, normalized), nearest) },
+                    Math.max(ef, k), 0);
+            List<Neighbour> result = new ArrayList<>(Math.min(k, candidates.length));
+            for (int i = 0; i < candidates.length && i < k; i++) {
+                result.add(new Neighbour(node(candidates[i]), similarity(candidates[i])));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exact k nearest neighbours by scanning every vector, the baseline for recall and speed comparisons
+     *
+     * @param query The query vector
+     * @param k Number of neighbours
+     * @return The neighbours, most similar first
+     */
+    public List<Neighbour> exactSearch(float[] query, int k) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            LongHeap best = new LongHeap();
+            for (int node = 0; node < vectors.size(); node++) {
+                best.push(key(vectors.dot(node, normalized), node));
+                if (best.size() > k) {
+                    best.pop();
+                }
+            }
+            Neighbour[] result = new Neighbour[best.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                long top = best.pop();
+                result[i] = new Neighbour(node(top), similarity(top));
+            }
+            return List.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of indexed vectors
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return vectors.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Walk a layer towards the query, always moving to the most similar neighbour, until no neighbour is closer
+     */
+    private int greedyClosest(float[] query, int start, int layer) {
+        int current = start;
+        float currentSimilarity = vectors.dot(current, query);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links.get(current)[layer];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                float similarity = vectors.dot(neighbours[i], query);
+                if (similarity > currentSimilarity) {
+                    current = neighbours[i];
+                    currentSimilarity = similarity;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer
+     *
+     * @return Up to {@code ef} keys of the closest nodes found, most similar first
+     */
+    private long[] searchLayer(float[] query, long[] entryPoints, int ef, int layer) {
+        Visited seen = visited.get();
+        seen.reset(vectors.size());
+        // Candidates pop most similar first (negated keys); results pop least similar first
+        LongHeap candidates = new LongHeap();
+        LongHeap results = new LongHeap();
+        for (long entry : entryPoints) {
+            seen.add(node(entry));
+            candidates.push(key(-similarity(entry), node(entry)));
+            results.push(entry);
+            if (results.size() > ef) {
+                results.pop();
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            long candidate = candidates.pop();
+            if (results.size() >= ef && -similarity(candidate) < similarity(results.peek())) {
+                break;
+            }
+            int[] neighbours = links.get(node(candidate))[layer];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (!seen.add(neighbour)) {
+                    continue;
+                }
+                float similarity = vectors.dot(neighbour, query);
+                if (results.size() < ef || similarity > similarity(results.peek())) {
+                    candidates.push(key(-similarity, neighbour));
+                    results.push(key(similarity, neighbour));
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+
+        long[] closest = new long[results.size()];
+        for (int i = closest.length - 1; i >= 0; i--) {
+            closest[i] = results.pop();
+        }
+        return closest;
+    }
+
+    /**
+     * Neighbour selection heuristic: take candidates in order of similarity, skipping any that is more similar to
+     * an already selected neighbour than to the base node. This keeps links spread out in different directions.
+     *
+     * @param candidates Keys of the candidates relative to the base node, most similar first
+     */
+    private int[] selectNeighbours(long[] candidates, int count) {
+        int[] selected = new int[Math.min(count, candidates.length)];
+        int size = 0;
+        for (int i = 0; i < candidates.length && size < selected.length; i++) {
+            int candidate = node(candidates[i]);
+            float similarityToBase = similarity(candidates[i]);
+            float[] candidateVector = vectors.get(candidate);
+            boolean diverse = true;
+            for (int j = 0; j < size && diverse; j++) {
+                diverse = vectors.dot(selected[j], candidateVector) < similarityToBase;
+            }
+            if (diverse) {
+                selected[size++] = candidate;
+            }
+        }
+        return size == selected.length ? selected : Arrays.copyOf(selected, size);
+    }
+
+    /**
+     * Add a link from {@code node} to {@code neighbour}, re-selecting the node's links if that exceeds the limit
+     */
+    private void connect(int node, int neighbour, int layer) {
+        int[] nodeLinks = links.get(node)[layer];
+        if (nodeLinks[0] < nodeLinks.length - 1) {
+            append(nodeLinks, neighbour);
+            return;
+        }
+
+        float[] nodeVector = vectors.get(node);
+        long[] candidates = new long[nodeLinks[0] + 1];
+        for (int i = 1; i <= nodeLinks[0]; i++) {
+            candidates[i - 1] = key(vectors.dot(nodeLinks[i], nodeVector), nodeLinks[i]);
+        }
+        candidates[candidates.length - 1] = key(vectors.dot(neighbour, nodeVector), neighbour);
+        Arrays.sort(candidates);
+        reverse(candidates);
+
+        int[] kept = selectNeighbours(candidates, capacity(layer));
+        nodeLinks[0] = kept.length;
+        System.arraycopy(kept, 0, nodeLinks, 1, kept.length);
+    }
+
+    private int capacity(int layer) {
+        return layer == 0 ? maxConnectionsLayer0 : maxConnections;
+    }
+
+    private static void append(int[] nodeLinks, int neighbour) {
+        nodeLinks[++nodeLinks[0]] = neighbour;
+    }
+
+    private static void reverse(long[] keys) {
+        for (int i = 0, j = keys.length - 1; i < j; i++, j--) {
+            long swap = keys[i];
+            keys[i] = keys[j];
+            keys[j] = swap;
+        }
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = vector.clone();
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < normalized.length; i++) {
+                normalized[i] *= scale;
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Pack a similarity and a node id into a key whose natural {@code long} order is by similarity, then by id
+     */
+    private static long key(float similarity, int node) {
+        int bits = Float.floatToIntBits(similarity);
+        int sortable = bits >= 0 ? bits : bits ^ Integer.MAX_VALUE;
+        return ((long) sortable << 32) | (node & 0xFFFFFFFFL);
+    }
+
+    private static float similarity(long key) {
+        int sortable = (int) (key >> 32);
+        return Float.intBitsToFloat(sortable >= 0 ? sortable : sortable ^ Integer.MAX_VALUE);
+    }
+
+    private static int node(long key) {
+        return (int) key;
+    }
+
+    /**
+     * A search result
+     *
+     * @param id The vector id
+     * @param similarity The cosine similarity to the query
+     */
+    public record Neighbour(int id, float similarity) {
+    }
+
+    /**
+     * Per-thread visited marks, cleared in O(1) by bumping an epoch instead of zeroing the array
+     */
+    private static final class Visited {
+
+        private int[] marks = new int[0];
+        private int epoch;
+
+        void reset(int size) {
+            if (marks.length < size) {
+                marks = new int[Math.max(size, marks.length * 2)];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+
+        /**
+         * @return Whether the node was not yet visited
+         */
+        boolean add(int node) {
+            if (marks[node] == epoch) {
+                return false;
+            }
+            marks[node] = epoch;
+            return true;
+        }
+    }
+}
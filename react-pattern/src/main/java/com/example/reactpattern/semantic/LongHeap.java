@@ -0,0 +1,67 @@
+package com.example.reactpattern.semantic;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of primitive {@code long} keys. {@link HnswIndex} packs a similarity and a node id into each key,
+ * which keeps the search loop free of boxing.
+ */
+final class LongHeap {
+
+    private long[] keys = new long[16];
+    private int size;
+
+    void push(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        int position = size++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            keys[position] = keys[parent];
+            position = parent;
+        }
+        keys[position] = key;
+    }
+
+    long peek() {
+        return keys[0];
+    }
+
+    long pop() {
+        long top = keys[0];
+        long last = keys[--size];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (last <= keys[child]) {
+                break;
+            }
+            keys[position] = keys[child];
+            position = child;
+        }
+        keys[position] = last;
+        return top;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
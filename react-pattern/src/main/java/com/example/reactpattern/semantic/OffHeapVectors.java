@@ -0,0 +1,153 @@
+package com.example.reactpattern.semantic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only store of fixed-dimension float vectors kept outside the Java heap.
+ * <p>
+ * Vectors are laid out contiguously in chunks of direct or memory-mapped buffers, so a large corpus adds
+ * no objects for the garbage collector to trace. Each vector is addressed by its insertion index.
+ * Reads may run concurrently with each other, but not with an append; {@link HnswIndex} guards this with its lock.
+ */
+public class OffHeapVectors implements AutoCloseable {
+
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    private static final int MAX_VECTORS_PER_CHUNK = 1 << 16;
+
+    private final int dimensions;
+    private final int vectorsPerChunk;
+    private final FileChannel channel;
+    private final List<FloatBuffer> chunks = new ArrayList<>();
+    private final ThreadLocal<float[]> scratch;
+    private int size;
+
+    private OffHeapVectors(int dimensions, FileChannel channel) {
+        this.dimensions = dimensions;
+        this.vectorsPerChunk = Math.max(1, Math.min(MAX_VECTORS_PER_CHUNK, MAX_CHUNK_BYTES / (dimensions * Float.BYTES)));
+        this.channel = channel;
+        this.scratch = ThreadLocal.withInitial(() -> new float[dimensions]);
+    }
+
+    /**
+     * Create a store backed by direct buffers
+     *
+     * @param dimensions The vector dimension
+     * @return The empty store
+     */
+    public static OffHeapVectors direct(int dimensions) {
+        return new OffHeapVectors(dimensions, null);
+    }
+
+    /**
+     * Create a store backed by a memory-mapped scratch file, so the OS can page vectors out under memory pressure.
+     * Existing content of the file is discarded.
+     *
+     * @param dimensions The vector dimension
+     * @param path The backing file
+     * @return The empty store
+     * @throws IOException If the file cannot be created
+     */
+    public static OffHeapVectors mapped(int dimensions, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new OffHeapVectors(dimensions, channel);
+    }
+
+    /**
+     * Append a vector
+     *
+     * @param vector The vector, of exactly {@link #dimensions()} components
+     * @return The index of the vector
+     */
+    public int add(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        int index = size;
+        int chunk = index / vectorsPerChunk;
+        if (chunk == chunks.size()) {
+            chunks.add(allocateChunk(chunk));
+        }
+        chunks.get(chunk).put((index % vectorsPerChunk) * dimensions, vector);
+        size = index + 1;
+        return index;
+    }
+
+    /**
+     * Dot product of a stored vector with another vector
+     *
+     * @param index The index of the stored vector
+     * @param other The other vector
+     * @return The dot product
+     */
+    public float dot(int index, float[] other) {
+        // One bulk copy and a plain array loop beat element-wise buffer reads
+        float[] vector = scratch.get();
+        chunks.get(index / vectorsPerChunk).get((index % vectorsPerChunk) * dimensions, vector);
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            sum += vector[i] * other[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Copy a stored vector
+     *
+     * @param index The index of the vector
+     * @return A heap copy of the vector
+     */
+    public float[] get(int index) {
+        float[] vector = new float[dimensions];
+        chunks.get(index / vectorsPerChunk).get((index % vectorsPerChunk) * dimensions, vector);
+        return vector;
+    }
+
+    /**
+     * @return The number of stored vectors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The vector dimension
+     */
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private FloatBuffer allocateChunk(int chunk) {
+        int bytes = vectorsPerChunk * dimensions * Float.BYTES;
+        ByteBuffer buffer;
+        if (channel == null) {
+            buffer = ByteBuffer.allocateDirect(bytes);
+        } else {
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, (long) chunk * bytes, bytes);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to map vector chunk " + chunk, e);
+            }
+        }
+        return buffer.order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.reactpattern.service;
 
+import com.example.reactpattern.execution.ToolCallbackFactory;
 import com.example.reactpattern.tools.SearchTool;
 import com.example.reactpattern.tools.EnvironmentTool;
+import com.example.reactpattern.tools.SemanticSearchTool;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.SystemPromptTemplate;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -20,8 +24,7 @@ import java.util.Objects;
 public class ReactService {
 
     private final ChatClient chatClient;
-    private final SearchTool searchTool;
-    private final EnvironmentTool environmentTool;
+    private final ToolCallback[] toolCallbacks;
     
     private static final String SYSTEM_PROMPT = """
             You are an AI assistant that follows the ReAct (Reasoning + Acting) pattern to solve problems.
@@ -34,6 +37,7 @@ public class ReactService {
             
             Available tools:
             - Search tool: Use this to find information on specific topics.
+            - Semantic search tool: Use this when a keyword search finds nothing or the question is phrased differently from the topic.
             - Environment tool: Use this to interact with the environment and perform actions.
             
             For each step in your process, clearly indicate whether you are REASONING or ACTING.
@@ -51,25 +55,27 @@ public class ReactService {
             Always be thorough in your reasoning and use tools appropriately to gather the information you need.
             """;
 
-    public ReactService(ChatClient.Builder chatClient, SearchTool searchTool, EnvironmentTool environmentTool) {
+    public ReactService(ChatClient.Builder chatClient, SearchTool searchTool, SemanticSearchTool semanticSearchTool,
+                        EnvironmentTool environmentTool, ToolCallbackFactory toolCallbackFactory) {
         this.chatClient = chatClient.build();
-        this.searchTool = searchTool;
-        this.environmentTool = environmentTool;
+        this.toolCallbacks = toolCallbackFactory.create(searchTool, semanticSearchTool, environmentTool);
     }
 
     /**
      * Process a user query using the ReAct pattern
      * 
      * @param userQuery The user's query
+     * @param sessionId The session whose environment the tools act on
      * @return The response from the ReAct process
      */
-    public String processQuery(String userQuery) {
+    public String processQuery(String userQuery, String sessionId) {
         Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
         Message userMessage = new UserMessage(userQuery);
         
         Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
         
-        ChatResponse response = chatClient.prompt(prompt).tools(searchTool, environmentTool)
+        ChatResponse response = chatClient.prompt(prompt).tools(toolCallbacks)
+                .toolContext(Map.of(EnvironmentTool.SESSION_ID, sessionId))
                 .call()
                 .chatResponse();
         
@@ -1,129 +1,107 @@
 package com.example.reactpattern.tools;
 
+import com.example.reactpattern.environment.EnvironmentSessions;
+import com.example.reactpattern.environment.SessionEnvironment;
+import org.springframework.ai.chat.model.ToolContext;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Environment tool that provides interaction with a simulated environment
+ * Environment tool that provides interaction with a simulated environment.
+ * Each session has its own environment, selected by the session id in the tool context.
  */
 @Component
 public class EnvironmentTool {
 
-    // Simulated environment state
-    private final Map<String, Object> environmentState;
-    private final List<String> actionHistory;
+    /** Tool context key of the session id */
+    public static final String SESSION_ID = "sessionId";
+    /** Session used when the tool context carries no session id */
+    public static final String DEFAULT_SESSION = "default";
+
+    // Simulated environments, one per session
+    private final EnvironmentSessions sessions;
+    private final int historyPageSize;
     
-    public EnvironmentTool() {
-        // Initialize environment state
-        environmentState = new HashMap<>();
-        environmentState.put("location", "home");
-        environmentState.put("inventory", new ArrayList<String>());
-        environmentState.put("weather", "sunny");
-        environmentState.put("time", "morning");
-        
-        actionHistory = new ArrayList<>();
+    public EnvironmentTool(EnvironmentSessions sessions, @Value("${react.history.page-size:20}") int historyPageSize) {
+        this.sessions = sessions;
+        this.historyPageSize = historyPageSize;
     }
 
     /**
      * Get the current state of the environment
      * 
+     * @param toolContext Carries the session id
      * @return Environment state as a formatted string
      */
     @Tool(description = "Get the current state of the environment")
-    public String getEnvironmentState() {
-        StringBuilder state = new StringBuilder("Current Environment State:\n");
-        
-        state.append("Location: ").append(environmentState.get("location")).append("\n");
-        state.append("Weather: ").append(environmentState.get("weather")).append("\n");
-        state.append("Time: ").append(environmentState.get("time")).append("\n");
-        
-        @SuppressWarnings("unchecked")
-        List<String> inventory = (List<String>) environmentState.get("inventory");
-        state.append("Inventory: ");
-        if (inventory.isEmpty()) {
-            state.append("empty");
-        } else {
-            state.append(String.join(", ", inventory));
-        }
-        
-        return state.toString();
+    public String getEnvironmentState(ToolContext toolContext) {
+        return environment(toolContext).describe();
     }
     
     /**
      * Perform an action in the environment
      * 
      * @param action The action to perform
+     * @param toolContext Carries the session id
      * @return Result of the action as a formatted string
      */
     @Tool(description = "Perform an action in the environment (e.g., 'move to park', 'pick up book', 'check weather')")
-    public String performAction(String action) {
-        String normalizedAction = action.toLowerCase().trim();
-        actionHistory.add(normalizedAction);
-        
-        // Handle movement actions
-        if (normalizedAction.startsWith("move to ") || normalizedAction.startsWith("go to ")) {
-            String newLocation = normalizedAction.replace("move to ", "").replace("go to ", "");
-            String oldLocation = (String) environmentState.get("location");
-            environmentState.put("location", newLocation);
-            return "Moved from " + oldLocation + " to " + newLocation + ".";
-        }
-        
-        // Handle inventory actions
-        if (normalizedAction.startsWith("pick up ") || normalizedAction.startsWith("take ")) {
-            String item = normalizedAction.replace("pick up ", "").replace("take ", "");
-            @SuppressWarnings("unchecked")
-            List<String> inventory = (List<String>) environmentState.get("inventory");
-            inventory.add(item);
-            return "Added " + item + " to inventory.";
-        }
-        
-        if (normalizedAction.startsWith("drop ")) {
-            String item = normalizedAction.replace("drop ", "");
-            @SuppressWarnings("unchecked")
-            List<String> inventory = (List<String>) environmentState.get("inventory");
-            if (inventory.contains(item)) {
-                inventory.remove(item);
-                return "Removed " + item + " from inventory.";
-            } else {
-                return "You don't have " + item + " in your inventory.";
-            }
-        }
-        
-        // Handle weather checking
-        if (normalizedAction.contains("weather")) {
-            return "The current weather is " + environmentState.get("weather") + ".";
-        }
+    public String performAction(String action, ToolContext toolContext) {
+        return environment(toolContext).perform(action);
+    }
+    
+    /**
+     * Perform several actions in one call, in order
+     * 
+     * @param actions The actions to perform
+     * @param toolContext Carries the session id
+     * @return The numbered result of each action
+     */
+    @Tool(description = "Perform a list of actions in the environment in order, in one call (e.g., ['go to library', 'pick up book', 'go to park'])")
+    public String performActions(List<String> actions, ToolContext toolContext) {
+        List<String> results = environment(toolContext).performAll(actions);
         
-        // Handle time checking
-        if (normalizedAction.contains("time")) {
-            return "The current time is " + environmentState.get("time") + ".";
+        StringBuilder response = new StringBuilder();
+        for (int i = 0; i < results.size(); i++) {
+            response.append(i + 1).append(". ").append(actions.get(i)).append(": ").append(results.get(i)).append("\n");
         }
-        
-        // Default response for unrecognized actions
-        return "Action performed: " + action + ". No specific outcome.";
+        return response.toString();
     }
     
     /**
-     * Get the history of actions performed
+     * Get a page of the history of actions performed
      * 
+     * @param page The page, 1 (the default) being the most recent actions
+     * @param toolContext Carries the session id
      * @return Action history as a formatted string
      */
-    @Tool(description = "Get the history of actions performed in the environment")
-    public String getActionHistory() {
-        if (actionHistory.isEmpty()) {
-            return "No actions have been performed yet.";
-        }
-        
-        StringBuilder history = new StringBuilder("Action History:\n");
-        for (int i = 0; i < actionHistory.size(); i++) {
-            history.append(i + 1).append(". ").append(actionHistory.get(i)).append("\n");
-        }
-        
-        return history.toString();
+    @Tool(description = "Get the history of actions performed in the environment, one page at a time, most recent first")
+    public String getActionHistory(
+            @ToolParam(description = "Page number; 1 (the default) is the most recent actions", required = false) Integer page,
+            ToolContext toolContext) {
+        return environment(toolContext).historyPage(page == null || page < 1 ? 1 : page, historyPageSize);
+    }
+    
+    /**
+     * Get the actions performed after a sequence number
+     * 
+     * @param sequence The last sequence number already seen
+     * @param toolContext Carries the session id
+     * @return The newer actions as a formatted string
+     */
+    @Tool(description = "Get the actions performed in the environment after a given sequence number (#N in the history)")
+    public String getActionsSince(
+            @ToolParam(description = "The last sequence number already seen; 0 for the oldest retained action") long sequence,
+            ToolContext toolContext) {
+        return environment(toolContext).historySince(sequence, historyPageSize);
+    }
+
+    private SessionEnvironment environment(ToolContext toolContext) {
+        Object sessionId = toolContext == null ? null : toolContext.getContext().get(SESSION_ID);
+        return sessions.get(sessionId == null ? DEFAULT_SESSION : sessionId.toString());
     }
 }
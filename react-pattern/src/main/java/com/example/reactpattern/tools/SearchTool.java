@@ -1,10 +1,16 @@
 package com.example.reactpattern.tools;
 
+import com.example.reactpattern.execution.CacheableTool;
+import com.example.reactpattern.search.InvertedIndex;
+import com.example.reactpattern.search.KnowledgeBase;
+import com.example.reactpattern.search.KnowledgeDocument;
+import com.example.reactpattern.search.SearchHit;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Search tool that provides information retrieval capabilities
@@ -12,26 +18,18 @@ import java.util.Map;
 @Component
 public class SearchTool {
 
-    // Simulated knowledge base
-    private final Map<String, String> knowledgeBase;
+    // Knowledge base, indexed for BM25 ranking
+    private final InvertedIndex knowledgeBase;
+    private final int topK;
     
-    public SearchTool() {
-        // Initialize with some sample data
-        knowledgeBase = new HashMap<>();
+    public SearchTool(KnowledgeBase documents, @Value("${search.top-k:3}") int topK) {
+        this.topK = topK;
         
-        knowledgeBase.put("spring ai", 
-            "Spring AI is an application framework for AI engineering. It provides a Spring-friendly API and abstractions " +
-            "for developing AI applications. It supports various AI models including OpenAI, Azure OpenAI, Anthropic, and more.");
-        
-        knowledgeBase.put("react pattern", 
-            "The ReAct pattern (Reasoning + Acting) is an AI agent design pattern that combines reasoning with action. " +
-            "It enables AI systems to reason about a problem, take actions to gather information or affect the environment, " +
-            "observe the results, and continue reasoning based on those observations.");
-        
-        knowledgeBase.put("large language models", 
-            "Large Language Models (LLMs) are advanced AI systems trained on vast amounts of text data. " +
-            "They can generate human-like text, translate languages, write different kinds of creative content, " +
-            "and answer questions in an informative way. Examples include GPT-4, Claude, and Llama.");
+        InvertedIndex.Builder builder = InvertedIndex.builder();
+        for (KnowledgeDocument document : documents.documents()) {
+            builder.add(document.title(), document.text());
+        }
+        knowledgeBase = builder.build();
     }
 
     /**
@@ -40,16 +38,22 @@ public class SearchTool {
      * @param query The search query
      * @return Search results as a formatted string
      */
-    @Tool(description = "Search for information on a specific topic")
+    @CacheableTool(ttl = "PT10M")
+    @Tool(description = "Search the knowledge base for information on a specific topic; returns the best matching documents with snippets")
     public String search(String query) {
-        String normalizedQuery = query.toLowerCase().trim();
+        List<SearchHit> hits = knowledgeBase.search(query, topK);
         
-        for (Map.Entry<String, String> entry : knowledgeBase.entrySet()) {
-            if (normalizedQuery.contains(entry.getKey()) || entry.getKey().contains(normalizedQuery)) {
-                return "Search results for '" + query + "':\n\n" + entry.getValue();
-            }
+        if (hits.isEmpty()) {
+            return "No specific information found for '" + query + "'. Please try a different search term.";
         }
         
-        return "No specific information found for '" + query + "'. Please try a different search term.";
+        StringBuilder results = new StringBuilder("Search results for '" + query + "':\n");
+        for (int i = 0; i < hits.size(); i++) {
+            SearchHit hit = hits.get(i);
+            results.append("\n").append(i + 1).append(". ").append(hit.title())
+                    .append(String.format(Locale.ROOT, " (score %.2f)\n", hit.score()))
+                    .append(hit.snippet()).append("\n");
+        }
+        return results.toString();
     }
 }
@@ -0,0 +1,106 @@
+package com.example.reactpattern.tools;
+
+import com.example.reactpattern.execution.CacheableTool;
+import com.example.reactpattern.search.KnowledgeBase;
+import com.example.reactpattern.search.KnowledgeDocument;
+import com.example.reactpattern.semantic.HashingEmbeddingModel;
+import com.example.reactpattern.semantic.HnswIndex;
+import com.example.reactpattern.semantic.OffHeapVectors;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Semantic search tool that finds knowledge base documents by meaning rather than by exact keywords
+ */
+@Component
+public class SemanticSearchTool implements AutoCloseable {
+
+    private static final int SNIPPET_MAX_CHARS = 240;
+    /** Documents per embedding request; well under the input limit of hosted embedding APIs */
+    private static final int EMBEDDING_BATCH_SIZE = 256;
+
+    private final EmbeddingModel embeddingModel;
+    private final List<KnowledgeDocument> documents;
+    private final OffHeapVectors vectors;
+    private final HnswIndex index;
+    private final int topK;
+    private final int efSearch;
+
+    public SemanticSearchTool(KnowledgeBase knowledgeBase,
+                              ObjectProvider<EmbeddingModel> embeddingModels,
+                              @Value("${semantic-search.embedding:local}") String embedding,
+                              @Value("${semantic-search.local-dimensions:256}") int localDimensions,
+                              @Value("${semantic-search.vectors.path:}") String vectorsPath,
+                              @Value("${semantic-search.hnsw.m:16}") int maxConnections,
+                              @Value("${semantic-search.hnsw.ef-construction:100}") int efConstruction,
+                              @Value("${semantic-search.hnsw.ef-search:64}") int efSearch,
+                              @Value("${search.top-k:3}") int topK) {
+        // "local" needs no network; "model" uses the application's EmbeddingModel bean
+        this.embeddingModel = "local".equals(embedding)
+                ? new HashingEmbeddingModel(localDimensions)
+                : embeddingModels.getObject();
+        this.documents = knowledgeBase.documents();
+        this.topK = topK;
+        this.efSearch = efSearch;
+
+        int dimensions = embeddingModel.dimensions();
+        try {
+            vectors = vectorsPath.isBlank()
+                    ? OffHeapVectors.direct(dimensions)
+                    : OffHeapVectors.mapped(dimensions, Path.of(vectorsPath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create vector file " + vectorsPath, e);
+        }
+        index = new HnswIndex(vectors, maxConnections, efConstruction);
+        for (int start = 0; start < documents.size(); start += EMBEDDING_BATCH_SIZE) {
+            List<String> batch = documents.subList(start, Math.min(start + EMBEDDING_BATCH_SIZE, documents.size()))
+                    .stream()
+                    .map(document -> document.title() + "\n" + document.text())
+                    .toList();
+            // One request per batch instead of one per document; embeddings come back in input order
+            embeddingModel.embed(batch).forEach(index::add);
+        }
+    }
+
+    /**
+     * Search for documents whose meaning is close to the query, even when they use different words
+     *
+     * @param query The search query, e.g. a question in natural language
+     * @return The most similar documents as a formatted string
+     */
+    @CacheableTool(ttl = "PT10M")
+    @Tool(description = "Semantic search: find knowledge base documents that are similar in meaning to a question, even if worded differently")
+    public String semanticSearch(String query) {
+        List<HnswIndex.Neighbour> neighbours = index.search(embeddingModel.embed(query), topK, efSearch);
+
+        if (neighbours.isEmpty()) {
+            return "No documents are available for semantic search.";
+        }
+
+        StringBuilder results = new StringBuilder("Semantic search results for '" + query + "':\n");
+        for (int i = 0; i < neighbours.size(); i++) {
+            HnswIndex.Neighbour neighbour = neighbours.get(i);
+            KnowledgeDocument document = documents.get(neighbour.id());
+            String text = document.text();
+            results.append("\n").append(i + 1).append(". ").append(document.title())
+                    .append(String.format(Locale.ROOT, " (similarity %.2f)\n", neighbour.similarity()))
+                    .append(text.length() <= SNIPPET_MAX_CHARS ? text : text.substring(0, SNIPPET_MAX_CHARS) + "...")
+                    .append("\n");
+        }
+        return results.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        vectors.close();
+    }
+}
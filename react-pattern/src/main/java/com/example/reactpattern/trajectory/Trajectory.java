@@ -0,0 +1,47 @@
+package com.example.reactpattern.trajectory;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The recorded model turns and observations of a ReAct episode
+ *
+ * @param key The key the trajectory is stored under, derived from query and starting environment state
+ * @param query The user's query
+ * @param startState The environment state the episode started from
+ * @param steps The steps, in order; the last one holds the final answer
+ * @param recordedAtMillis When the trajectory was recorded, in epoch milliseconds
+ */
+public record Trajectory(String key, String query, String startState, List<Step> steps, long recordedAtMillis) {
+
+    /** The wall-clock {@code [HH:mm:ss]} of each action in a rendered action history */
+    private static final Pattern ACTION_TIME = Pattern.compile("\\[\\d{2}:\\d{2}:\\d{2}]");
+
+    /**
+     * Compare a live observation with a recorded one, ignoring the fields that differ on every run, such as the
+     * times in an action history
+     *
+     * @param live The observation of the running episode
+     * @param recorded The recorded observation
+     * @return Whether the model would see the same thing
+     */
+    public static boolean sameObservation(String live, String recorded) {
+        if (live.equals(recorded)) {
+            return true;
+        }
+        return recorded != null && normalize(live).equals(normalize(recorded));
+    }
+
+    private static String normalize(String observation) {
+        return ACTION_TIME.matcher(observation).replaceAll("[time]");
+    }
+
+    /**
+     * A recorded step
+     *
+     * @param modelOutput The raw model turn
+     * @param observation The tool result the turn led to, or null for the final answer
+     */
+    public record Step(String modelOutput, String observation) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.reactpattern.trajectory;
+
+import java.util.Locale;
+
+/**
+ * Whether a ReAct episode records its trajectory and replays a recorded one
+ */
+public enum TrajectoryMode {
+    /** Every turn goes to the live model and nothing is recorded */
+    OFF,
+    /** Every turn goes to the live model and the episode is recorded, replacing any earlier recording */
+    RECORD,
+    /** Recorded model turns are replayed while the tools return the recorded observations; episodes that needed
+     * the live model are recorded */
+    REPLAY;
+
+    /**
+     * @param value The mode name, in any case
+     * @return The mode
+     * @throws IllegalArgumentException If the value names no mode
+     */
+    public static TrajectoryMode parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
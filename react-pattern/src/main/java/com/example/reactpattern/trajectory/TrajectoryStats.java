@@ -0,0 +1,51 @@
+package com.example.reactpattern.trajectory;
+
+/**
+ * Point-in-time statistics of the {@link TrajectoryStore}
+ */
+public class TrajectoryStats {
+
+    private final long lookups;
+    private final long hits;
+    private final long divergences;
+    private final long recorded;
+    private final int entries;
+
+    public TrajectoryStats(long lookups, long hits, long divergences, long recorded, int entries) {
+        this.lookups = lookups;
+        this.hits = hits;
+        this.divergences = divergences;
+        this.recorded = recorded;
+        this.entries = entries;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Replays that switched to the live model because a tool returned a different observation
+     */
+    public long getDivergences() {
+        return divergences;
+    }
+
+    public long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * @return Number of trajectories held in memory
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    public double getHitRatio() {
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
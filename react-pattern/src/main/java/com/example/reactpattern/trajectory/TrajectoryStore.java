@@ -0,0 +1,177 @@
+package com.example.reactpattern.trajectory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recorded ReAct trajectories, keyed by the system prompt, the normalized query and the starting environment state.
+ * <p>
+ * The most recently used trajectories are held in memory. If a directory is configured, each trajectory is also
+ * written to {@code <key>.json} in it, so recordings survive restarts and can be shared between benchmark runs.
+ */
+@Component
+public class TrajectoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrajectoryStore.class);
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Map<String, Trajectory> trajectories;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder divergences = new LongAdder();
+    private final LongAdder recorded = new LongAdder();
+
+    public TrajectoryStore(ObjectMapper objectMapper,
+                           @Value("${react.trajectories.dir:}") String directory,
+                           @Value("${react.trajectories.max-entries:1000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.trajectories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Trajectory> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Build the key of an episode
+     *
+     * @param systemPrompt The system prompt, which lists the tools
+     * @param query The user's query
+     * @param startState The environment state the episode starts from
+     * @return A fixed-size key
+     */
+    public String key(String systemPrompt, String query, String startState) {
+        String normalizedQuery = query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(systemPrompt.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalizedQuery.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(startState.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Look up the recorded steps of an episode
+     *
+     * @param key The key of the episode
+     * @return The recorded steps, or an empty list if the episode was not recorded
+     */
+    public List<Trajectory.Step> find(String key) {
+        lookups.increment();
+        Trajectory trajectory;
+        synchronized (trajectories) {
+            trajectory = trajectories.get(key);
+        }
+        if (trajectory == null && directory != null) {
+            trajectory = read(key);
+            if (trajectory != null) {
+                synchronized (trajectories) {
+                    trajectories.put(key, trajectory);
+                }
+            }
+        }
+        if (trajectory == null) {
+            return List.of();
+        }
+        hits.increment();
+        return trajectory.steps();
+    }
+
+    /**
+     * Store a trajectory, replacing any earlier one with the same key
+     *
+     * @param trajectory The trajectory
+     */
+    public void save(Trajectory trajectory) {
+        synchronized (trajectories) {
+            trajectories.put(trajectory.key(), trajectory);
+        }
+        recorded.increment();
+        if (directory != null) {
+            write(trajectory);
+        }
+    }
+
+    /**
+     * Count a replay that diverged from its recording
+     */
+    public void recordDivergence() {
+        divergences.increment();
+    }
+
+    /**
+     * @return Lookup, hit, divergence and recording counts
+     */
+    public TrajectoryStats stats() {
+        int entries;
+        synchronized (trajectories) {
+            entries = trajectories.size();
+        }
+        return new TrajectoryStats(lookups.sum(), hits.sum(), divergences.sum(), recorded.sum(), entries);
+    }
+
+    private Trajectory read(String key) {
+        Path file = directory.resolve(key + ".json");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), Trajectory.class);
+        } catch (IOException e) {
+            // An unreadable recording is treated as missing and replaced by the next live episode
+            logger.warn("Failed to read trajectory {}", file, e);
+            return null;
+        }
+    }
+
+    private void write(Trajectory trajectory) {
+        Path file = directory.resolve(trajectory.key() + ".json");
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, trajectory.key(), ".tmp");
+            objectMapper.writeValue(temporary.toFile(), trajectory);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Persisting is best effort; the trajectory stays available in memory
+            logger.warn("Failed to write trajectory {}", file, e);
+            deleteQuietly(temporary);
+        }
+    }
+
+    private static void deleteQuietly(Path temporary) {
+        if (temporary == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary trajectory file {}", temporary, e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.reactpattern.semantic;
+
+/**
+ * Outcome of comparing HNSW search against brute force on the same data
+ *
+ * @param vectors Number of indexed vectors
+ * @param dimensions Vector dimension
+ * @param queries Number of queries run against each method
+ * @param k Number of neighbours per query
+ * @param ef HNSW candidate list size used for the queries
+ * @param buildMillis Time to build the HNSW index
+ * @param recallAtK Average fraction of the exact k nearest neighbours that HNSW also returned
+ * @param hnswQueriesPerSecond HNSW query throughput on one thread
+ * @param bruteForceQueriesPerSecond Brute-force query throughput on one thread
+ */
+public record BenchmarkResult(int vectors, int dimensions, int queries, int k, int ef, long buildMillis,
+                              double recallAtK, double hnswQueriesPerSecond, double bruteForceQueriesPerSecond) {
+}
@@ -0,0 +1,117 @@
+package com.example.reactpattern.semantic;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures recall@k and query throughput of {@link HnswIndex} against exact brute-force search.
+ * <p>
+ * The data is synthetic and seeded: points scattered around random cluster centres. That is closer to real
+ * embeddings than uniform noise, and every run with the same parameters sees the same vectors.
+ * <p>
+ * A standalone harness kept with the test sources, so it is not packaged with the application: building a large
+ * index takes memory and CPU that a request should never be able to claim. Run it from the module directory with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.reactpattern.semantic.SemanticBenchmark
+ * -Dexec.args="vectors dimensions queries k ef m efConstruction"}; trailing arguments may be omitted.
+ */
+public final class SemanticBenchmark {
+
+    private static final int CLUSTERS = 100;
+    private static final double CLUSTER_SPREAD = 0.3;
+
+    private SemanticBenchmark() {
+    }
+
+    /**
+     * Run the benchmark and print the measurements
+     *
+     * @param args Optional positional arguments: vectors, dimensions, queries, k, ef, m and efConstruction,
+     *             defaulting to 10000, 128, 200, 10, 64, 16 and 100
+     */
+    public static void main(String[] args) {
+        int[] parameters = {10_000, 128, 200, 10, 64, 16, 100};
+        if (args.length > parameters.length) {
+            throw new IllegalArgumentException("Expected at most " + parameters.length + " arguments");
+        }
+        for (int i = 0; i < args.length; i++) {
+            parameters[i] = Integer.parseInt(args[i]);
+        }
+        System.out.println(run(parameters[0], parameters[1], parameters[2], parameters[3], parameters[4],
+                parameters[5], parameters[6]));
+    }
+
+    /**
+     * Build an index over synthetic vectors and compare it with brute force
+     *
+     * @param vectorCount Number of vectors to index
+     * @param dimensions Vector dimension
+     * @param queryCount Number of queries
+     * @param k Number of neighbours per query
+     * @param ef HNSW candidate list size for the queries
+     * @param maxConnections HNSW links per node (M)
+     * @param efConstruction HNSW candidate list size while building
+     * @return The measurements
+     */
+    public static BenchmarkResult run(int vectorCount, int dimensions, int queryCount, int k, int ef,
+                                      int maxConnections, int efConstruction) {
+        Random random = new Random(7);
+        float[][] centres = new float[CLUSTERS][];
+        for (int i = 0; i < CLUSTERS; i++) {
+            centres[i] = gaussian(random, dimensions, null, 1);
+        }
+
+        HnswIndex index = new HnswIndex(OffHeapVectors.direct(dimensions), maxConnections, efConstruction);
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < vectorCount; i++) {
+            index.add(gaussian(random, dimensions, centres[random.nextInt(CLUSTERS)], CLUSTER_SPREAD));
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        float[][] queries = new float[queryCount][];
+        for (int i = 0; i < queryCount; i++) {
+            queries[i] = gaussian(random, dimensions, centres[random.nextInt(CLUSTERS)], CLUSTER_SPREAD);
+        }
+
+        long exactStart = System.nanoTime();
+        List<List<HnswIndex.Neighbour>> exact = new ArrayList<>(queryCount);
+        for (float[] query : queries) {
+            exact.add(index.exactSearch(query, k));
+        }
+        long exactNanos = System.nanoTime() - exactStart;
+
+        long approximateStart = System.nanoTime();
+        List<List<HnswIndex.Neighbour>> approximate = new ArrayList<>(queryCount);
+        for (float[] query : queries) {
+            approximate.add(index.search(query, k, ef));
+        }
+        long approximateNanos = System.nanoTime() - approximateStart;
+
+        double recall = 0;
+        for (int i = 0; i < queryCount; i++) {
+            Set<Integer> truth = new HashSet<>();
+            exact.get(i).forEach(neighbour -> truth.add(neighbour.id()));
+            long found = approximate.get(i).stream().filter(neighbour -> truth.contains(neighbour.id())).count();
+            recall += truth.isEmpty() ? 1 : (double) found / truth.size();
+        }
+
+        return new BenchmarkResult(vectorCount, dimensions, queryCount, k, ef, buildMillis,
+                queryCount == 0 ? 0 : recall / queryCount,
+                perSecond(queryCount, approximateNanos), perSecond(queryCount, exactNanos));
+    }
+
+    private static float[] gaussian(Random random, int dimensions, float[] centre, double spread) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) ((centre == null ? 0 : centre[i]) + random.nextGaussian() * spread);
+        }
+        return vector;
+    }
+
+    private static double perSecond(int count, long nanos) {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.reflectionpattern.cache;
+
+/**
+ * Point-in-time statistics of a {@link ResponseCache}
+ */
+public class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final int entries;
+    private final long weightBytes;
+    private final long maxWeightBytes;
+
+    public CacheStats(long hits, long misses, long evictions, long expirations,
+                      int entries, long weightBytes, long maxWeightBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.entries = entries;
+        this.weightBytes = weightBytes;
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getWeightBytes() {
+        return weightBytes;
+    }
+
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    public double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.reflectionpattern.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded LRU cache for model responses with a time-to-live per entry.
+ * The bound is the approximate retained size in bytes, so a few very long answers
+ * cannot push the cache far past its budget the way an entry-count limit would.
+ */
+public class ResponseCache {
+
+    // Rough per-entry overhead of the map node, entry object and two String headers
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final long maxWeightBytes;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long weightBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ResponseCache(long maxWeightBytes, Duration ttl) {
+        this.maxWeightBytes = maxWeightBytes;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Look up a cached response
+     *
+     * @param key The cache key
+     * @return The cached response, or null if absent or expired
+     */
+    public String get(String key) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (now - entry.expiresAt >= 0) {
+                entries.remove(key);
+                weightBytes -= entry.weight;
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Store a response, evicting least recently used entries until the cache fits its byte budget
+     *
+     * @param key The cache key
+     * @param value The response to cache
+     */
+    public void put(String key, String value) {
+        long weight = weigh(key, value);
+        if (weight > maxWeightBytes) {
+            return;
+        }
+
+        Entry entry = new Entry(value, weight, System.nanoTime() + ttlNanos);
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                weightBytes -= previous.weight;
+            }
+            weightBytes += weight;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (weightBytes > maxWeightBytes && eldest.hasNext()) {
+                Entry evicted = eldest.next().getValue();
+                eldest.remove();
+                weightBytes -= evicted.weight;
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            weightBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get a snapshot of the cache statistics
+     *
+     * @return The current statistics
+     */
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                    entries.size(), weightBytes, maxWeightBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long weigh(String key, String value) {
+        // Strings may be stored with two bytes per char, so size for the worst case
+        return ENTRY_OVERHEAD_BYTES + 2L * key.length() + 2L * value.length();
+    }
+
+    private record Entry(String value, long weight, long expiresAt) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.reflectionpattern.config;
+
+import com.example.reflectionpattern.cache.ResponseCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared infrastructure for the Reflection Pattern services
+ */
+@Configuration
+public class ReflectionConfig {
+
+    /**
+     * Executor used to run reflection work off the request thread.
+     * Reflection is dominated by blocking LLM calls, so each task gets its own virtual thread.
+     *
+     * @return A virtual-thread-per-task executor
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService reflectionExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Cache of initial outputs keyed by normalized query, system prompt and model options
+     *
+     * @param maxBytes Approximate memory budget of the cache
+     * @param ttl How long a cached response stays valid
+     * @return The response cache
+     */
+    @Bean
+    public ResponseCache generatorResponseCache(
+            @Value("${reflection.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${reflection.cache.ttl:PT1H}") Duration ttl) {
+        return new ResponseCache(maxBytes, ttl);
+    }
+}
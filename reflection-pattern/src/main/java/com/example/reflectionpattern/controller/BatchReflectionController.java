@@ -0,0 +1,130 @@
+package com.example.reflectionpattern.controller;
+
+import com.example.reflectionpattern.model.BatchItemResult;
+import com.example.reflectionpattern.model.BatchRequest;
+import com.example.reflectionpattern.service.BatchReflectionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Controller for the batch Reflection Pattern API.
+ * Results are streamed back as newline-delimited JSON in completion order.
+ */
+@RestController
+@RequestMapping("/api/reflection/batch")
+public class BatchReflectionController {
+
+    private final BatchReflectionService batchReflectionService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService reflectionExecutor;
+    private final long batchTimeoutMs;
+
+    public BatchReflectionController(BatchReflectionService batchReflectionService, ObjectMapper objectMapper,
+                                     ExecutorService reflectionExecutor,
+                                     @Value("${reflection.batch.timeout-ms:3600000}") long batchTimeoutMs) {
+        this.batchReflectionService = batchReflectionService;
+        this.objectMapper = objectMapper;
+        this.reflectionExecutor = reflectionExecutor;
+        this.batchTimeoutMs = batchTimeoutMs;
+    }
+
+    /**
+     * Process a JSON batch of queries
+     *
+     * @param request The queries together with the reflection settings
+     * @param concurrency Optional maximum number of queries processed at the same time
+     * @param itemTimeoutMs Optional time budget per query
+     * @return A stream of per-query results, one JSON object per line
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> processBatch(
+            @RequestBody BatchRequest request,
+            @RequestParam(defaultValue = "${reflection.batch.concurrency:8}") int concurrency,
+            @RequestParam(defaultValue = "${reflection.batch.item-timeout-ms:120000}") long itemTimeoutMs) {
+        return stream(request.getQueries(), request.getIterations(), request.isConverge(), concurrency, itemTimeoutMs);
+    }
+
+    /**
+     * Process an NDJSON batch where each line is either a JSON string or an object with a "query" field.
+     * The body is read line by line while earlier queries are already being processed. A line that is not valid
+     * JSON or has no query is reported as a failed item.
+     *
+     * @param body The newline-delimited queries
+     * @param iterations Optional number of reflection iterations per query (default: 1)
+     * @param converge Optional flag to stop early once successive outputs converge
+     * @param concurrency Optional maximum number of queries processed at the same time
+     * @param itemTimeoutMs Optional time budget per query
+     * @return A stream of per-query results, one JSON object per line
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> processNdjsonBatch(
+            InputStream body,
+            @RequestParam(defaultValue = "1") int iterations,
+            @RequestParam(defaultValue = "${reflection.convergence.enabled:false}") boolean converge,
+            @RequestParam(defaultValue = "${reflection.batch.concurrency:8}") int concurrency,
+            @RequestParam(defaultValue = "${reflection.batch.item-timeout-ms:120000}") long itemTimeoutMs) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        Iterable<String> queries = () -> reader.lines()
+                .filter(line -> !line.isBlank())
+                .map(this::parseQuery)
+                .iterator();
+        return stream(queries, iterations, converge, concurrency, itemTimeoutMs);
+    }
+
+    private ResponseEntity<ResponseBodyEmitter> stream(Iterable<String> queries, int iterations, boolean converge,
+                                                       int concurrency, long itemTimeoutMs) {
+        // The batch runs longer than ordinary requests, so it gets its own timeout
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(batchTimeoutMs);
+        Future<?> batch = reflectionExecutor.submit(() -> {
+            try {
+                batchReflectionService.process(queries, iterations, converge, concurrency, itemTimeoutMs,
+                        result -> writeLine(emitter, result));
+                emitter.complete();
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onTimeout(() -> batch.cancel(true));
+        emitter.onError(error -> batch.cancel(true));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+
+    /**
+     * @return The query of an NDJSON line, or null if the line is not valid JSON or has no query
+     */
+    private String parseQuery(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            JsonNode query = node.isTextual() ? node : node.path("query");
+            return query.isTextual() ? query.asText() : null;
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private void writeLine(ResponseBodyEmitter emitter, BatchItemResult result) {
+        try {
+            String line = objectMapper.writeValueAsString(result) + "\n";
+            synchronized (emitter) {
+                emitter.send(line, MediaType.APPLICATION_NDJSON);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,9 +1,27 @@
 package com.example.reflectionpattern.controller;
 
+import com.example.reflectionpattern.cache.CacheStats;
+import com.example.reflectionpattern.model.GateResult;
+import com.example.reflectionpattern.model.ReflectionMode;
+import com.example.reflectionpattern.model.ReflectionOutcome;
 import com.example.reflectionpattern.model.ReflectionResponse;
+import com.example.reflectionpattern.model.StopReason;
+import com.example.reflectionpattern.service.BestOfNReflectionService;
 import com.example.reflectionpattern.service.GeneratorService;
+import com.example.reflectionpattern.service.QualityGateService;
 import com.example.reflectionpattern.service.ReflectorService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Controller for the Reflection Pattern API
@@ -14,10 +32,24 @@ public class ReflectionController {
 
     private final GeneratorService generatorService;
     private final ReflectorService reflectorService;
+    private final BestOfNReflectionService bestOfNReflectionService;
+    private final QualityGateService qualityGateService;
+    private final ExecutorService reflectionExecutor;
+    private final long streamTimeoutMs;
 
-    public ReflectionController(GeneratorService generatorService, ReflectorService reflectorService) {
+    public ReflectionController(
+            GeneratorService generatorService,
+            ReflectorService reflectorService,
+            BestOfNReflectionService bestOfNReflectionService,
+            QualityGateService qualityGateService,
+            ExecutorService reflectionExecutor,
+            @Value("${reflection.stream.timeout-ms:300000}") long streamTimeoutMs) {
         this.generatorService = generatorService;
         this.reflectorService = reflectorService;
+        this.bestOfNReflectionService = bestOfNReflectionService;
+        this.qualityGateService = qualityGateService;
+        this.reflectionExecutor = reflectionExecutor;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
 
     /**
@@ -25,19 +57,138 @@ public class ReflectionController {
      * 
      * @param query The user's query
      * @param iterations Optional number of reflection iterations (default: 1)
+     * @param converge Optional flag to stop early once successive outputs converge
+     * @param mode Optional reflection strategy (default: SEQUENTIAL)
+     * @param candidates Optional number of concurrent candidates in BEST_OF_N mode
+     * @param deadlineMs Optional time budget for candidates in BEST_OF_N mode
+     * @param gate Optional flag to skip reflection when the initial output already scores well
      * @return A response containing the initial output, reflected output, and final output
      */
     @GetMapping
     public ReflectionResponse processQuery(
             @RequestParam String query,
-            @RequestParam(defaultValue = "1") int iterations) {
+            @RequestParam(defaultValue = "1") int iterations,
+            @RequestParam(defaultValue = "${reflection.convergence.enabled:false}") boolean converge,
+            @RequestParam(defaultValue = "SEQUENTIAL") ReflectionMode mode,
+            @RequestParam(defaultValue = "${reflection.best-of-n.candidates:3}") int candidates,
+            @RequestParam(defaultValue = "${reflection.best-of-n.deadline-ms:30000}") long deadlineMs,
+            @RequestParam(defaultValue = "${reflection.gate.enabled:false}") boolean gate) {
         
         // Generate initial output
         String initialOutput = generatorService.generateInitialOutput(query);
         
+        // Skip reflection entirely if the initial output is already good enough
+        GateResult gateResult = gate ? qualityGateService.evaluate(query, initialOutput) : null;
+        if (gateResult != null && gateResult.isPassed()) {
+            return new ReflectionResponse(query, initialOutput, initialOutput, 0, StopReason.QUALITY_GATE_PASSED,
+                    gateResult);
+        }
+        
         // Reflect on and improve the output
-        String reflectedOutput = reflectorService.iterativeReflection(query, initialOutput, iterations);
+        ReflectionOutcome outcome = switch (mode) {
+            case SEQUENTIAL -> reflectorService.iterativeReflection(query, initialOutput, iterations, converge);
+            case DELTA -> reflectorService.deltaReflection(query, initialOutput, iterations, converge);
+            case BEST_OF_N -> bestOfNReflectionService.reflect(query, initialOutput, candidates, deadlineMs);
+        };
         
-        return new ReflectionResponse(query, initialOutput, reflectedOutput);
+        return new ReflectionResponse(query, initialOutput, outcome, gateResult);
+    }
+
+    /**
+     * Process a user query using the reflection pattern, streaming progress as server-sent events.
+     * Emits "initial" events carrying initial-output tokens as JSON objects ({@code {"token": " text"}}), so leading
+     * whitespace survives SSE parsing, a "gate" event if the quality gate is enabled,
+     * one "reflection" event per completed reflection round (the event id is the round number), and a final
+     * "complete" event carrying the full {@link ReflectionResponse}.
+     * If the client disconnects or the stream times out, generation stops before the next model call.
+     *
+     * @param query The user's query
+     * @param iterations Optional number of reflection iterations (default: 1)
+     * @param converge Optional flag to stop early once successive outputs converge
+     * @param gate Optional flag to skip reflection when the initial output already scores well
+     * @return An emitter that streams the reflection process
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQuery(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "1") int iterations,
+            @RequestParam(defaultValue = "${reflection.convergence.enabled:false}") boolean converge,
+            @RequestParam(defaultValue = "${reflection.gate.enabled:false}") boolean gate) {
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Future<?> worker = reflectionExecutor.submit(() -> {
+            try {
+                // Stream the initial output token by token
+                StringBuilder initialOutput = new StringBuilder();
+                for (String token : generatorService.streamInitialOutput(query).toIterable()) {
+                    checkCancelled(cancelled);
+                    initialOutput.append(token);
+                    emitter.send(SseEmitter.event().name("initial").data(Map.of("token", token)));
+                }
+
+                GateResult gateResult = null;
+                if (gate) {
+                    gateResult = qualityGateService.evaluate(query, initialOutput.toString());
+                    emitter.send(SseEmitter.event().name("gate").data(gateResult));
+                }
+
+                ReflectionResponse response;
+                if (gateResult != null && gateResult.isPassed()) {
+                    response = new ReflectionResponse(query, initialOutput.toString(), initialOutput.toString(), 0,
+                            StopReason.QUALITY_GATE_PASSED, gateResult);
+                } else {
+                    // Emit each reflection round as soon as it completes
+                    checkCancelled(cancelled);
+                    ReflectionOutcome outcome = reflectorService.iterativeReflection(
+                            query, initialOutput.toString(), iterations, converge, (round, output) -> {
+                                send(emitter, SseEmitter.event().id(String.valueOf(round)).name("reflection").data(output));
+                                checkCancelled(cancelled);
+                            });
+                    response = new ReflectionResponse(query, initialOutput.toString(), outcome, gateResult);
+                }
+                emitter.send(SseEmitter.event().name("complete").data(response));
+                emitter.complete();
+            } catch (CancellationException e) {
+                // The client is gone; there is nobody left to report to
+            } catch (IOException | RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+
+        // Stop generating once the client has disconnected or the stream has timed out
+        Runnable cancel = () -> {
+            cancelled.set(true);
+            worker.cancel(true);
+        };
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(error -> cancel.run());
+
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void checkCancelled(AtomicBoolean cancelled) {
+        if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Stream closed by the client");
+        }
+    }
+
+    /**
+     * Get the statistics of the initial output cache
+     *
+     * @return Hit, miss, eviction and size statistics
+     */
+    @GetMapping("/cache/stats")
+    public CacheStats getCacheStats() {
+        return generatorService.getCacheStats();
     }
 }
@@ -0,0 +1,50 @@
+package com.example.reflectionpattern.model;
+
+/**
+ * Result of one query in a batch, streamed back as soon as it completes
+ */
+public class BatchItemResult {
+
+    private final int index;
+    private final String query;
+    private final ReflectionResponse response;
+    private final String error;
+    private final long elapsedMs;
+
+    public BatchItemResult(int index, String query, ReflectionResponse response, String error, long elapsedMs) {
+        this.index = index;
+        this.query = query;
+        this.response = response;
+        this.error = error;
+        this.elapsedMs = elapsedMs;
+    }
+
+    /**
+     * @return The position of the query in the submitted batch
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * @return The reflection response, or null if the item failed or timed out
+     */
+    public ReflectionResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return The failure reason, or null if the item succeeded
+     */
+    public String getError() {
+        return error;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.reflectionpattern.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request model for the batch reflection API
+ */
+public class BatchRequest {
+
+    private List<String> queries = new ArrayList<>();
+    private int iterations = 1;
+    private boolean converge;
+
+    public List<String> getQueries() {
+        return queries;
+    }
+
+    public void setQueries(List<String> queries) {
+        this.queries = queries;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public boolean isConverge() {
+        return converge;
+    }
+
+    public void setConverge(boolean converge) {
+        this.converge = converge;
+    }
+}
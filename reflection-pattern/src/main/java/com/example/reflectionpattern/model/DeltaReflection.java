@@ -0,0 +1,23 @@
+package com.example.reflectionpattern.model;
+
+/**
+ * One delta-based reflection round, with the critique kept separate from the revised answer
+ */
+public class DeltaReflection {
+
+    private final String critique;
+    private final String revisedAnswer;
+
+    public DeltaReflection(String critique, String revisedAnswer) {
+        this.critique = critique;
+        this.revisedAnswer = revisedAnswer;
+    }
+
+    public String getCritique() {
+        return critique;
+    }
+
+    public String getRevisedAnswer() {
+        return revisedAnswer;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.reflectionpattern.model;
+
+/**
+ * Decision of the quality gate that runs between generation and reflection
+ */
+public class GateResult {
+
+    private final int score;
+    private final int threshold;
+    private final boolean passed;
+
+    public GateResult(int score, int threshold) {
+        this.score = score;
+        this.threshold = threshold;
+        this.passed = score >= threshold;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return true if the initial output was good enough to skip reflection
+     */
+    public boolean isPassed() {
+        return passed;
+    }
+}
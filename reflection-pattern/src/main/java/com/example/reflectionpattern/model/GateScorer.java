@@ -0,0 +1,11 @@
+package com.example.reflectionpattern.model;
+
+/**
+ * How the quality gate scores an initial output
+ */
+public enum GateScorer {
+    /** A short, token-limited critic call to the model */
+    LLM,
+    /** A local heuristic that needs no model call */
+    HEURISTIC
+}
@@ -0,0 +1,13 @@
+package com.example.reflectionpattern.model;
+
+/**
+ * Strategy used to refine the initial output
+ */
+public enum ReflectionMode {
+    /** Run reflection rounds one after another, each improving the previous output */
+    SEQUENTIAL,
+    /** Run rounds one after another, carrying forward only the revised answer and a bounded critique */
+    DELTA,
+    /** Run independent reflection candidates concurrently and keep the best one */
+    BEST_OF_N
+}
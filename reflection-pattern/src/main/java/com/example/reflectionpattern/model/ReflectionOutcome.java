@@ -0,0 +1,46 @@
+package com.example.reflectionpattern.model;
+
+/**
+ * Result of an iterative reflection loop, including how many rounds actually ran
+ */
+public class ReflectionOutcome {
+
+    private final String output;
+    private final int iterationsPerformed;
+    private final StopReason stopReason;
+    private final double lastSimilarity;
+    private final int candidatesCompleted;
+
+    public ReflectionOutcome(String output, int iterationsPerformed, StopReason stopReason, double lastSimilarity) {
+        this(output, iterationsPerformed, stopReason, lastSimilarity, 0);
+    }
+
+    public ReflectionOutcome(String output, int iterationsPerformed, StopReason stopReason, double lastSimilarity,
+                             int candidatesCompleted) {
+        this.output = output;
+        this.iterationsPerformed = iterationsPerformed;
+        this.stopReason = stopReason;
+        this.lastSimilarity = lastSimilarity;
+        this.candidatesCompleted = candidatesCompleted;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public int getIterationsPerformed() {
+        return iterationsPerformed;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    public double getLastSimilarity() {
+        return lastSimilarity;
+    }
+
+    public int getCandidatesCompleted() {
+        return candidatesCompleted;
+    }
+}
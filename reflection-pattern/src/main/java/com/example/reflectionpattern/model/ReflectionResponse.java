@@ -8,11 +8,31 @@ public class ReflectionResponse {
     private final String query;
     private final String initialOutput;
     private final String reflectedOutput;
+    private final int iterationsPerformed;
+    private final StopReason stopReason;
+    private final int candidatesCompleted;
+    private final GateResult gate;
 
-    public ReflectionResponse(String query, String initialOutput, String reflectedOutput) {
+    public ReflectionResponse(String query, String initialOutput, ReflectionOutcome outcome, GateResult gate) {
+        this(query, initialOutput, outcome.getOutput(), outcome.getIterationsPerformed(), outcome.getStopReason(),
+                outcome.getCandidatesCompleted(), gate);
+    }
+
+    public ReflectionResponse(String query, String initialOutput, String reflectedOutput,
+                              int iterationsPerformed, StopReason stopReason, GateResult gate) {
+        this(query, initialOutput, reflectedOutput, iterationsPerformed, stopReason, 0, gate);
+    }
+
+    public ReflectionResponse(String query, String initialOutput, String reflectedOutput,
+                              int iterationsPerformed, StopReason stopReason, int candidatesCompleted,
+                              GateResult gate) {
         this.query = query;
         this.initialOutput = initialOutput;
         this.reflectedOutput = reflectedOutput;
+        this.iterationsPerformed = iterationsPerformed;
+        this.stopReason = stopReason;
+        this.candidatesCompleted = candidatesCompleted;
+        this.gate = gate;
     }
 
     public String getQuery() {
@@ -26,4 +46,23 @@ public class ReflectionResponse {
     public String getReflectedOutput() {
         return reflectedOutput;
     }
+
+    public int getIterationsPerformed() {
+        return iterationsPerformed;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    public int getCandidatesCompleted() {
+        return candidatesCompleted;
+    }
+
+    /**
+     * @return The quality gate decision, or null if the gate was not applied
+     */
+    public GateResult getGate() {
+        return gate;
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.reflectionpattern.model;
+
+/**
+ * Reason why an iterative reflection loop stopped
+ */
+public enum StopReason {
+    /** All requested iterations were performed */
+    MAX_ITERATIONS,
+    /** Two successive outputs were similar enough that further rounds were skipped */
+    CONVERGED,
+    /** The best of several concurrently generated candidates was selected */
+    BEST_CANDIDATE,
+    /** The deadline passed before any candidate finished, so the initial output was kept */
+    DEADLINE_EXCEEDED,
+    /** The quality gate scored the initial output high enough that reflection was skipped */
+    QUALITY_GATE_PASSED
+}
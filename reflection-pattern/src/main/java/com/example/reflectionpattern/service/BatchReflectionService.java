@@ -0,0 +1,123 @@
+package com.example.reflectionpattern.service;
+
+import com.example.reflectionpattern.model.BatchItemResult;
+import com.example.reflectionpattern.model.ReflectionOutcome;
+import com.example.reflectionpattern.model.ReflectionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Service that runs many queries through the reflection pipeline with bounded concurrency
+ */
+@Service
+public class BatchReflectionService {
+
+    private final GeneratorService generatorService;
+    private final ReflectorService reflectorService;
+    private final ExecutorService reflectionExecutor;
+    private final int maxConcurrency;
+
+    public BatchReflectionService(
+            GeneratorService generatorService,
+            ReflectorService reflectorService,
+            ExecutorService reflectionExecutor,
+            @Value("${reflection.batch.max-concurrency:32}") int maxConcurrency) {
+        this.generatorService = generatorService;
+        this.reflectorService = reflectorService;
+        this.reflectionExecutor = reflectionExecutor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Process a batch of queries, handing each result to the sink as soon as it completes.
+     * At most {@code concurrency} items are in flight at once; the call returns when every item is done.
+     * Queries are consumed lazily, so they can be read from the request body while earlier items run.
+     * A null or blank query is reported as a failed item without calling the model.
+     *
+     * @param queries The queries to process, in batch order
+     * @param iterations Number of reflection iterations per query
+     * @param converge Whether to stop reflecting once successive outputs converge
+     * @param concurrency Maximum number of queries processed at the same time (capped by the configured maximum)
+     * @param itemTimeoutMs Time budget per query, after which the item is cancelled and reported as failed
+     * @param sink Receiver of results in completion order; may be called from several threads
+     */
+    public void process(Iterable<String> queries, int iterations, boolean converge, int concurrency,
+                        long itemTimeoutMs, Consumer<BatchItemResult> sink) {
+        Semaphore permits = new Semaphore(Math.max(1, Math.min(concurrency, maxConcurrency)));
+        List<Future<?>> items = new ArrayList<>();
+
+        try {
+            int index = -1;
+            for (String query : queries) {
+                index++;
+                if (query == null || query.isBlank()) {
+                    sink.accept(new BatchItemResult(index, query, null, "Missing query", 0));
+                    continue;
+                }
+                int itemIndex = index;
+
+                // Acquire before submitting so a large batch does not queue thousands of waiting tasks
+                permits.acquire();
+                items.add(reflectionExecutor.submit(() -> {
+                    try {
+                        sink.accept(processItem(itemIndex, query, iterations, converge, itemTimeoutMs));
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (Future<?> item : items) {
+                item.get();
+            }
+        } catch (InterruptedException e) {
+            items.forEach(item -> item.cancel(true));
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The sink failed (e.g. the client disconnected), so stop the remaining items
+            items.forEach(item -> item.cancel(true));
+            throw new IllegalStateException("Batch aborted", e.getCause());
+        } catch (RuntimeException e) {
+            // Reading the queries or writing a result failed, so stop the remaining items
+            items.forEach(item -> item.cancel(true));
+            throw e;
+        }
+    }
+
+    private BatchItemResult processItem(int index, String query, int iterations, boolean converge, long timeoutMs) {
+        long start = System.nanoTime();
+        Future<ReflectionResponse> pipeline = reflectionExecutor.submit(() -> {
+            String initialOutput = generatorService.generateInitialOutput(query);
+            ReflectionOutcome outcome = reflectorService.iterativeReflection(query, initialOutput, iterations, converge);
+            return new ReflectionResponse(query, initialOutput, outcome, null);
+        });
+
+        try {
+            ReflectionResponse response = pipeline.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return new BatchItemResult(index, query, response, null, elapsedMs(start));
+        } catch (TimeoutException e) {
+            pipeline.cancel(true);
+            return new BatchItemResult(index, query, null, "Timed out after " + timeoutMs + " ms", elapsedMs(start));
+        } catch (ExecutionException e) {
+            return new BatchItemResult(index, query, null, String.valueOf(e.getCause().getMessage()), elapsedMs(start));
+        } catch (InterruptedException e) {
+            pipeline.cancel(true);
+            Thread.currentThread().interrupt();
+            return new BatchItemResult(index, query, null, "Interrupted", elapsedMs(start));
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
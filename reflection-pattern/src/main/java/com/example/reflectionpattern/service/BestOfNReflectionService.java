@@ -0,0 +1,126 @@
+package com.example.reflectionpattern.service;
+
+import com.example.reflectionpattern.model.ReflectionOutcome;
+import com.example.reflectionpattern.model.StopReason;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that runs several independent reflection candidates concurrently and keeps the best one.
+ * Latency is roughly one reflection round trip instead of one round trip per iteration.
+ */
+@Service
+public class BestOfNReflectionService {
+
+    private final ReflectorService reflectorService;
+    private final ExecutorService reflectionExecutor;
+    private final int maxCandidates;
+
+    public BestOfNReflectionService(
+            ReflectorService reflectorService,
+            ExecutorService reflectionExecutor,
+            @Value("${reflection.best-of-n.max-candidates:8}") int maxCandidates) {
+        this.reflectorService = reflectorService;
+        this.reflectionExecutor = reflectionExecutor;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Reflect on the initial output with several concurrent candidates and select the best one
+     *
+     * @param userQuery The original user query
+     * @param initialOutput The initial AI-generated output
+     * @param candidates Number of candidates to generate (capped by the configured maximum)
+     * @param deadlineMs Time to wait for candidates before selecting among the finished ones
+     * @return The selected candidate, or the initial output if no candidate finished in time
+     */
+    public ReflectionOutcome reflect(String userQuery, String initialOutput, int candidates, long deadlineMs) {
+        int fanOut = Math.max(1, Math.min(candidates, maxCandidates));
+        List<Callable<String>> tasks = Collections.nCopies(fanOut,
+                () -> reflectorService.reflectAndImprove(userQuery, initialOutput));
+
+        List<String> completed = new ArrayList<>();
+        try {
+            // Unfinished candidates are cancelled once the deadline passes
+            for (Future<String> future : reflectionExecutor.invokeAll(tasks, deadlineMs, TimeUnit.MILLISECONDS)) {
+                try {
+                    completed.add(future.get());
+                } catch (CancellationException | ExecutionException e) {
+                    // Skip candidates that timed out or failed
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (completed.isEmpty()) {
+            return new ReflectionOutcome(initialOutput, 0, StopReason.DEADLINE_EXCEEDED, 0.0, 0);
+        }
+
+        int best = selectBest(userQuery, completed);
+        return new ReflectionOutcome(completed.get(best), 1, StopReason.BEST_CANDIDATE,
+                reflectorService.similarity(initialOutput, completed.get(best)), completed.size());
+    }
+
+    /**
+     * Pick the consensus candidate: the one most similar on average to all the others.
+     * Query-term coverage only breaks exact ties, which also decides the two-candidate case.
+     */
+    private int selectBest(String userQuery, List<String> candidates) {
+        int best = 0;
+        double bestAgreement = Double.NEGATIVE_INFINITY;
+        double bestCoverage = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < candidates.size(); i++) {
+            double agreement = 0.0;
+            for (int j = 0; j < candidates.size(); j++) {
+                if (i != j) {
+                    agreement += reflectorService.similarity(candidates.get(i), candidates.get(j));
+                }
+            }
+            if (candidates.size() > 1) {
+                agreement /= candidates.size() - 1;
+            }
+
+            int comparison = Double.compare(agreement, bestAgreement);
+            if (comparison > 0) {
+                bestAgreement = agreement;
+                bestCoverage = Double.NEGATIVE_INFINITY;
+            }
+            if (comparison >= 0) {
+                double coverage = queryCoverage(userQuery, candidates.get(i));
+                if (comparison > 0 || coverage > bestCoverage) {
+                    bestCoverage = coverage;
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    private double queryCoverage(String userQuery, String candidate) {
+        String[] terms = userQuery.toLowerCase(Locale.ROOT).split("\\W+");
+        String text = candidate.toLowerCase(Locale.ROOT);
+        int present = 0;
+        int total = 0;
+        for (String term : terms) {
+            if (term.length() > 2) {
+                total++;
+                if (text.contains(term)) {
+                    present++;
+                }
+            }
+        }
+        return total == 0 ? 0.0 : (double) present / total;
+    }
+}
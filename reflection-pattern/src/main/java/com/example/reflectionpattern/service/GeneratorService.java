@@ -1,13 +1,21 @@
 package com.example.reflectionpattern.service;
 
+import com.example.reflectionpattern.cache.CacheStats;
+import com.example.reflectionpattern.cache.ResponseCache;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.SystemPromptTemplate;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
 
@@ -18,14 +26,25 @@ import java.util.Objects;
 public class GeneratorService {
 
     private final ChatClient chatClient;
+    private final ResponseCache responseCache;
+    private final boolean cacheEnabled;
+    private final String modelOptionsKey;
     private static final String SYSTEM_PROMPT = """
             You are a helpful AI assistant that generates responses to user queries.
             Provide a detailed and informative initial response to the user's query.
             Focus on being accurate and comprehensive in your response.
             """;
 
-    public GeneratorService(ChatClient.Builder chatClient) {
+    public GeneratorService(
+            ChatClient.Builder chatClient,
+            ResponseCache responseCache,
+            @Value("${reflection.cache.enabled:false}") boolean cacheEnabled,
+            @Value("${spring.ai.openai.chat.options.model:}") String model,
+            @Value("${spring.ai.openai.chat.options.temperature:}") String temperature) {
         this.chatClient = chatClient.build();
+        this.responseCache = responseCache;
+        this.cacheEnabled = cacheEnabled;
+        this.modelOptionsKey = model + "|" + temperature;
     }
 
     /**
@@ -35,12 +54,82 @@ public class GeneratorService {
      * @return The generated response
      */
     public String generateInitialOutput(String userQuery) {
-        Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
-        Message userMessage = new UserMessage(userQuery);
+        if (!cacheEnabled) {
+            return generate(userQuery);
+        }
         
-        Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
-        ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
+        String cacheKey = cacheKey(userQuery);
+        String cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
         
+        String output = generate(userQuery);
+        responseCache.put(cacheKey, output);
+        return output;
+    }
+
+    /**
+     * Stream the initial response to the user's query token by token
+     * 
+     * @param userQuery The user's query
+     * @return A stream of response chunks as they are produced by the model
+     */
+    public Flux<String> streamInitialOutput(String userQuery) {
+        if (!cacheEnabled) {
+            return chatClient.prompt(buildPrompt(userQuery)).stream().content();
+        }
+        
+        String cacheKey = cacheKey(userQuery);
+        String cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            return Flux.just(cached);
+        }
+        
+        // Cache the full output once the stream completes successfully
+        StringBuilder output = new StringBuilder();
+        return chatClient.prompt(buildPrompt(userQuery)).stream().content()
+                .doOnNext(output::append)
+                .doOnComplete(() -> responseCache.put(cacheKey, output.toString()));
+    }
+
+    /**
+     * Get the statistics of the initial output cache
+     * 
+     * @return Hit, miss, eviction and size statistics
+     */
+    public CacheStats getCacheStats() {
+        return responseCache.stats();
+    }
+
+    private String generate(String userQuery) {
+        ChatResponse response = chatClient.prompt(buildPrompt(userQuery)).call().chatResponse();
         return Objects.requireNonNull(response).getResult().getOutput().getText();
     }
+
+    private Prompt buildPrompt(String userQuery) {
+        Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
+        Message userMessage = new UserMessage(userQuery);
+        
+        return new Prompt(List.of(systemMessage, userMessage));
+    }
+
+    /**
+     * Build a fixed-size cache key from the query, the system prompt and the model options.
+     * Only surrounding whitespace is ignored; case and inner whitespace can matter, e.g. in code or identifiers.
+     */
+    private String cacheKey(String userQuery) {
+        String normalizedQuery = userQuery.strip();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(modelOptionsKey.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(SYSTEM_PROMPT.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(normalizedQuery.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
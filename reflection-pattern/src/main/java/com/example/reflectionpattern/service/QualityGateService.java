@@ -0,0 +1,111 @@
+package com.example.reflectionpattern.service;
+
+import com.example.reflectionpattern.model.GateResult;
+import com.example.reflectionpattern.model.GateScorer;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.chat.prompt.SystemPromptTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service that scores an initial output so reflection can be skipped when the answer is already good
+ */
+@Service
+public class QualityGateService {
+
+    private static final String SYSTEM_PROMPT = """
+            You are a strict grader of AI-generated answers.
+            Rate how well the answer responds to the user's query on a scale from 1 to 10,
+            considering factual accuracy, completeness, clarity and relevance.
+            Respond with the number only.
+            """;
+
+    private static final Pattern SCORE_PATTERN = Pattern.compile("\\b(10|[1-9])\\b");
+    private static final List<String> WEAK_PHRASES = List.of(
+            "i'm not sure", "i am not sure", "i don't know", "i cannot", "i can't", "as an ai");
+
+    private final ChatClient chatClient;
+    private final GateScorer scorer;
+    private final int threshold;
+    private final ChatOptions criticOptions;
+
+    public QualityGateService(
+            ChatClient.Builder chatClient,
+            @Value("${reflection.gate.scorer:LLM}") GateScorer scorer,
+            @Value("${reflection.gate.threshold:8}") int threshold,
+            @Value("${reflection.gate.max-tokens:3}") int maxTokens) {
+        this.chatClient = chatClient.build();
+        this.scorer = scorer;
+        this.threshold = threshold;
+        this.criticOptions = ChatOptions.builder().maxTokens(maxTokens).temperature(0.0).build();
+    }
+
+    /**
+     * Score the initial output and decide whether it needs reflection
+     *
+     * @param userQuery The original user query
+     * @param initialOutput The initial AI-generated output
+     * @return The score together with the gate decision
+     */
+    public GateResult evaluate(String userQuery, String initialOutput) {
+        int score = switch (scorer) {
+            case LLM -> criticScore(userQuery, initialOutput);
+            case HEURISTIC -> heuristicScore(userQuery, initialOutput);
+        };
+        return new GateResult(score, threshold);
+    }
+
+    /**
+     * Ask the model for a single 1-10 rating, limited to a few output tokens
+     */
+    private int criticScore(String userQuery, String initialOutput) {
+        Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
+        Message userMessage = new UserMessage("User Query: " + userQuery + "\n\nAnswer: " + initialOutput);
+
+        Prompt prompt = new Prompt(List.of(systemMessage, userMessage), criticOptions);
+        ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
+        String text = Objects.requireNonNull(response).getResult().getOutput().getText();
+
+        // An unparseable rating counts as failing the gate so the answer still gets reflected on
+        Matcher matcher = SCORE_PATTERN.matcher(text == null ? "" : text);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    /**
+     * Score the answer locally from query-term coverage, length and the absence of hedging phrases
+     */
+    private int heuristicScore(String userQuery, String initialOutput) {
+        String answer = initialOutput.toLowerCase(Locale.ROOT);
+
+        int terms = 0;
+        int covered = 0;
+        for (String term : userQuery.toLowerCase(Locale.ROOT).split("\\W+")) {
+            if (term.length() > 2) {
+                terms++;
+                if (answer.contains(term)) {
+                    covered++;
+                }
+            }
+        }
+        double coverage = terms == 0 ? 1.0 : (double) covered / terms;
+
+        int words = answer.isBlank() ? 0 : answer.trim().split("\\s+").length;
+        double length = Math.min(1.0, words / 80.0);
+
+        boolean hedging = WEAK_PHRASES.stream().anyMatch(answer::contains);
+
+        double score = 1 + 5 * coverage + 4 * length - (hedging ? 3 : 0);
+        return (int) Math.max(1, Math.min(10, Math.round(score)));
+    }
+}
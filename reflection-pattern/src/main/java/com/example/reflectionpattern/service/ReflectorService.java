@@ -1,16 +1,28 @@
 package com.example.reflectionpattern.service;
 
+import com.example.reflectionpattern.model.DeltaReflection;
+import com.example.reflectionpattern.model.ReflectionOutcome;
+import com.example.reflectionpattern.model.StopReason;
+import com.example.reflectionpattern.util.TextSimilarity;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
 import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.SystemPromptTemplate;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Service responsible for reflecting on and improving the initial output
@@ -19,6 +31,10 @@ import java.util.Objects;
 public class ReflectorService {
 
     private final ChatClient chatClient;
+    private final double convergenceThreshold;
+    private final int shingleSize;
+    private final int deltaMaxTokens;
+    private final int critiqueMaxChars;
     private static final String SYSTEM_PROMPT = """
             You are a critical evaluator and improver of AI-generated content.
             Your task is to analyze the provided AI-generated response to a user query,
@@ -35,9 +51,32 @@ public class ReflectorService {
             First, provide a brief analysis of the strengths and weaknesses of the initial response.
             Then, provide an improved version that addresses the identified issues.
             """;
+    private static final String DELTA_SYSTEM_PROMPT = """
+            You are a critical evaluator and improver of AI-generated content.
+            You will receive a user query, the current answer and, optionally, a summary of the
+            previous critique. Evaluate the current answer for factual accuracy, completeness,
+            clarity, relevance and missing perspectives, then rewrite it.
+            
+            Respond in exactly this format:
+            CRITIQUE: [a short list of the most important remaining issues, at most %d characters]
+            REVISED ANSWER: [the complete improved answer, without any commentary]
+            """;
+    private static final Pattern REVISED_ANSWER_MARKER = Pattern.compile("(?i)revised answer\\s*:");
+    private static final Pattern CRITIQUE_MARKER = Pattern.compile("(?i)^\\s*critique\\s*:\\s*");
+    private static final Set<String> LENGTH_FINISH_REASONS = Set.of("length", "max_tokens");
+    private static final int CHARS_PER_TOKEN = 4;
 
-    public ReflectorService(ChatClient.Builder chatClient) {
+    public ReflectorService(
+            ChatClient.Builder chatClient,
+            @Value("${reflection.convergence.threshold:0.9}") double convergenceThreshold,
+            @Value("${reflection.convergence.shingle-size:3}") int shingleSize,
+            @Value("${reflection.delta.max-tokens-per-iteration:1024}") int deltaMaxTokens,
+            @Value("${reflection.delta.critique-max-chars:600}") int critiqueMaxChars) {
         this.chatClient = chatClient.build();
+        this.convergenceThreshold = convergenceThreshold;
+        this.shingleSize = shingleSize;
+        this.deltaMaxTokens = deltaMaxTokens;
+        this.critiqueMaxChars = critiqueMaxChars;
     }
 
     /**
@@ -60,20 +99,185 @@ public class ReflectorService {
     }
     
     /**
-     * Iteratively improve the output through multiple reflection cycles
+     * Iteratively improve the output, optionally stopping early once successive outputs converge
      * 
      * @param userQuery The original user query
      * @param initialOutput The initial AI-generated output
-     * @param iterations Number of reflection iterations to perform
-     * @return The final improved output after iterations
+     * @param maxIterations Maximum number of reflection iterations to perform
+     * @param stopOnConvergence Whether to stop once two successive outputs are similar enough
+     * @return The final output together with the number of iterations run and why the loop stopped
      */
-    public String iterativeReflection(String userQuery, String initialOutput, int iterations) {
+    public ReflectionOutcome iterativeReflection(String userQuery, String initialOutput, int maxIterations,
+                                                 boolean stopOnConvergence) {
+        return iterativeReflection(userQuery, initialOutput, maxIterations, stopOnConvergence, (round, output) -> { });
+    }
+
+    /**
+     * Iteratively improve the output, optionally stopping early once successive outputs converge,
+     * reporting each round as soon as it completes
+     * 
+     * @param userQuery The original user query
+     * @param initialOutput The initial AI-generated output
+     * @param maxIterations Maximum number of reflection iterations to perform
+     * @param stopOnConvergence Whether to stop once two successive outputs are similar enough
+     * @param onRound Called with the round number and its output after each round
+     * @return The final output together with the number of iterations run and why the loop stopped
+     */
+    public ReflectionOutcome iterativeReflection(String userQuery, String initialOutput, int maxIterations,
+                                                 boolean stopOnConvergence, BiConsumer<Integer, String> onRound) {
         String currentOutput = initialOutput;
+        double similarity = 0.0;
         
-        for (int i = 0; i < iterations; i++) {
-            currentOutput = reflectAndImprove(userQuery, currentOutput);
+        for (int i = 1; i <= maxIterations; i++) {
+            String previousOutput = currentOutput;
+            currentOutput = reflectAndImprove(userQuery, previousOutput);
+            onRound.accept(i, currentOutput);
+            
+            if (stopOnConvergence) {
+                similarity = similarity(previousOutput, currentOutput);
+                if (hasConverged(similarity)) {
+                    return new ReflectionOutcome(currentOutput, i, StopReason.CONVERGED, similarity);
+                }
+            }
         }
         
-        return currentOutput;
+        return new ReflectionOutcome(currentOutput, maxIterations, StopReason.MAX_ITERATIONS, similarity);
+    }
+
+    /**
+     * Perform one delta-based reflection round.
+     * Only the current answer and a bounded summary of the previous critique are sent, so the prompt does not grow
+     * from round to round. The reply is requested once, capped at the per-iteration token budget or, for a long
+     * answer, at room for a somewhat longer answer plus the critique. A revised answer that is cut off is discarded
+     * and the current answer is kept.
+     * 
+     * @param userQuery The original user query
+     * @param currentAnswer The answer to improve
+     * @param previousCritique The critique from the previous round, or null for the first round
+     * @return The critique and the revised answer, separated
+     */
+    public DeltaReflection reflectWithDelta(String userQuery, String currentAnswer, String previousCritique) {
+        StringBuilder content = new StringBuilder("User Query: ").append(userQuery)
+                .append("\n\nCurrent Answer: ").append(currentAnswer);
+        if (previousCritique != null && !previousCritique.isBlank()) {
+            content.append("\n\nPrevious Critique (already addressed): ").append(previousCritique);
+        }
+        
+        Message systemMessage = new SystemPromptTemplate(DELTA_SYSTEM_PROMPT.formatted(critiqueMaxChars)).createMessage();
+        Message userMessage = new UserMessage(content.toString());
+        
+        ChatOptions options = ChatOptions.builder().maxTokens(deltaMaxTokens(currentAnswer)).build();
+        Generation generation = callDelta(new Prompt(List.of(systemMessage, userMessage), options));
+        
+        DeltaReflection delta = parseDelta(generation.getOutput().getText(), currentAnswer);
+        if (isTruncated(generation)) {
+            return new DeltaReflection(delta.getCritique(), currentAnswer);
+        }
+        return delta;
+    }
+    
+    /**
+     * The token cap of a delta reply: the configured budget, raised for an answer whose revision, with a quarter
+     * more room to grow, and the critique would not fit in it
+     */
+    private int deltaMaxTokens(String currentAnswer) {
+        int answerTokens = (currentAnswer.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+        int critiqueTokens = (critiqueMaxChars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+        return Math.max(deltaMaxTokens, answerTokens + answerTokens / 4 + critiqueTokens);
+    }
+    
+    private Generation callDelta(Prompt prompt) {
+        ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
+        return Objects.requireNonNull(response).getResult();
+    }
+    
+    private static boolean isTruncated(Generation generation) {
+        ChatGenerationMetadata metadata = generation.getMetadata();
+        String finishReason = metadata == null ? null : metadata.getFinishReason();
+        return finishReason != null && LENGTH_FINISH_REASONS.contains(finishReason.toLowerCase(Locale.ROOT));
+    }
+    
+    /**
+     * Iteratively improve the output with delta-based reflection rounds
+     * 
+     * @param userQuery The original user query
+     * @param initialOutput The initial AI-generated output
+     * @param maxIterations Maximum number of reflection iterations to perform
+     * @param stopOnConvergence Whether to stop once two successive answers are similar enough
+     * @return The final revised answer together with the number of iterations run and why the loop stopped
+     */
+    public ReflectionOutcome deltaReflection(String userQuery, String initialOutput, int maxIterations,
+                                             boolean stopOnConvergence) {
+        String currentAnswer = initialOutput;
+        String critique = null;
+        double similarity = 0.0;
+        
+        for (int i = 1; i <= maxIterations; i++) {
+            String previousAnswer = currentAnswer;
+            DeltaReflection delta = reflectWithDelta(userQuery, previousAnswer, critique);
+            currentAnswer = delta.getRevisedAnswer();
+            critique = summarizeCritique(delta.getCritique());
+            
+            if (stopOnConvergence) {
+                similarity = similarity(previousAnswer, currentAnswer);
+                if (hasConverged(similarity)) {
+                    return new ReflectionOutcome(currentAnswer, i, StopReason.CONVERGED, similarity);
+                }
+            }
+        }
+        
+        return new ReflectionOutcome(currentAnswer, maxIterations, StopReason.MAX_ITERATIONS, similarity);
+    }
+
+    /**
+     * Compute how similar two successive reflection outputs are
+     * 
+     * @param previousOutput The output of the previous round
+     * @param currentOutput The output of the current round
+     * @return A similarity between 0.0 and 1.0
+     */
+    public double similarity(String previousOutput, String currentOutput) {
+        return TextSimilarity.shingleJaccard(previousOutput, currentOutput, shingleSize);
+    }
+
+    /**
+     * Check whether two successive reflection outputs are similar enough to stop iterating
+     * 
+     * @param similarity The similarity between the two outputs
+     * @return true if the configured convergence threshold has been reached
+     */
+    public boolean hasConverged(double similarity) {
+        return similarity >= convergenceThreshold;
+    }
+
+    /**
+     * Split a delta reply into critique and revised answer.
+     * If the model ignored the format, the whole reply is treated as the revised answer.
+     */
+    private DeltaReflection parseDelta(String text, String fallbackAnswer) {
+        if (text == null || text.isBlank()) {
+            return new DeltaReflection("", fallbackAnswer);
+        }
+        
+        Matcher marker = REVISED_ANSWER_MARKER.matcher(text);
+        if (!marker.find()) {
+            return new DeltaReflection("", text.trim());
+        }
+        
+        String critique = CRITIQUE_MARKER.matcher(text.substring(0, marker.start())).replaceFirst("").trim();
+        String revisedAnswer = text.substring(marker.end()).trim();
+        return new DeltaReflection(critique, revisedAnswer.isEmpty() ? fallbackAnswer : revisedAnswer);
+    }
+    
+    /**
+     * Bound the critique carried into the next round, cutting at a sentence or line boundary where possible
+     */
+    private String summarizeCritique(String critique) {
+        if (critique.length() <= critiqueMaxChars) {
+            return critique;
+        }
+        String truncated = critique.substring(0, critiqueMaxChars);
+        int boundary = Math.max(truncated.lastIndexOf('\n'), truncated.lastIndexOf(". "));
+        return boundary > critiqueMaxChars / 2 ? truncated.substring(0, boundary + 1).trim() : truncated.trim();
     }
 }
@@ -0,0 +1,75 @@
+package com.example.reflectionpattern.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Cheap local text similarity used to detect when successive reflection rounds stop changing the output
+ */
+public final class TextSimilarity {
+
+    private TextSimilarity() {
+    }
+
+    /**
+     * Compute the Jaccard similarity of the word shingles of two texts.
+     * Shingles are hashed to ints and compared as sorted arrays, so no per-shingle strings are allocated.
+     *
+     * @param first The first text
+     * @param second The second text
+     * @param shingleSize Number of consecutive words per shingle
+     * @return A similarity between 0.0 (disjoint) and 1.0 (identical shingle sets)
+     */
+    public static double shingleJaccard(String first, String second, int shingleSize) {
+        int[] a = shingleHashes(first, shingleSize);
+        int[] b = shingleHashes(second, shingleSize);
+        if (a.length == 0 && b.length == 0) {
+            return 1.0;
+        }
+
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                intersection++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - intersection;
+        return (double) intersection / union;
+    }
+
+    /**
+     * Hash every window of {@code shingleSize} consecutive normalized words
+     *
+     * @return The distinct shingle hashes in ascending order
+     */
+    private static int[] shingleHashes(String text, int shingleSize) {
+        String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        int[] wordHashes = Arrays.stream(words)
+                .filter(word -> !word.isEmpty())
+                .mapToInt(String::hashCode)
+                .toArray();
+
+        int size = Math.max(1, shingleSize);
+        if (wordHashes.length < size) {
+            return wordHashes.length == 0 ? new int[0] : new int[] { Arrays.hashCode(wordHashes) };
+        }
+
+        int[] shingles = new int[wordHashes.length - size + 1];
+        for (int start = 0; start < shingles.length; start++) {
+            int hash = 1;
+            for (int k = start; k < start + size; k++) {
+                hash = 31 * hash + wordHashes[k];
+            }
+            shingles[start] = hash;
+        }
+        return Arrays.stream(shingles).sorted().distinct().toArray();
+    }
+}
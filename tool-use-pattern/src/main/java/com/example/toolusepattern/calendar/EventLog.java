@@ -0,0 +1,316 @@
+package com.example.toolusepattern.calendar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable append-only log of calendar events in a memory-mapped file.
+ * <p>
+ * The file starts with an 8-byte header (magic and version) followed by records of the form
+ * {@code [int length][long epochDay][length bytes of UTF-8 description][int CRC32C]}, where the checksum
+ * covers the day and the description. A zero length marks the end of the log. On open, the mapped file is
+ * scanned up to the first record that is incomplete or fails its checksum. That record is the torn tail of an
+ * interrupted write, and the next append overwrites it.
+ * <p>
+ * Appends are copied into the mapping and need no system call. With group commit, dirty pages are forced to disk
+ * by a background flusher every flush interval, instead of on each append. A crash of the process loses nothing,
+ * because the pages are already in the OS page cache. Only a power failure or OS crash can lose the appends of
+ * the last flush interval. Without group commit, each append forces its own record.
+ * <p>
+ * Compaction rewrites the records that are still within the retention window into a new file, then atomically
+ * replaces the log with it.
+ */
+public class EventLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventLog.class);
+
+    private static final int MAGIC = 0x43414C47;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    /** Length, day and checksum around each description */
+    private static final int RECORD_OVERHEAD = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final long MIN_CAPACITY = 1 << 20;
+
+    private final Path path;
+    private final boolean groupCommit;
+    private final int retentionDays;
+    private final ScheduledExecutorService maintenance;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private int flushedPosition;
+    private int recordCount;
+
+    private EventLog(Path path, boolean groupCommit, int retentionDays) {
+        this.path = path;
+        this.groupCommit = groupCommit;
+        this.retentionDays = retentionDays;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calendar-event-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open or create a log and recover its end position
+     *
+     * @param path The log file
+     * @param groupCommit Whether appends are forced to disk by a periodic flusher instead of one by one
+     * @param flushIntervalMs How often the group-commit flusher runs
+     * @param compactionIntervalMs How often to compact the log, 0 to compact only on demand
+     * @param retentionDays Events further in the past than this many days are dropped by compaction, 0 to keep all
+     * @return The open log
+     * @throws IOException If the file cannot be opened or is not an event log
+     */
+    public static EventLog open(Path path, boolean groupCommit, long flushIntervalMs, long compactionIntervalMs,
+                                int retentionDays) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        // Left over from a compaction that did not finish; the log itself is intact
+        Files.deleteIfExists(compactionPath(path));
+
+        EventLog log = new EventLog(path, groupCommit, retentionDays);
+        log.map();
+        if (groupCommit) {
+            log.maintenance.scheduleWithFixedDelay(log::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        if (compactionIntervalMs > 0) {
+            log.maintenance.scheduleWithFixedDelay(log::compactQuietly, compactionIntervalMs, compactionIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+        return log;
+    }
+
+    /**
+     * Load every record into a store. Records were validated on open, so this only decodes them.
+     *
+     * @param store The store to fill
+     * @return The number of events loaded
+     */
+    public synchronized int replayInto(EventStore store) {
+        long[] days = new long[recordCount];
+        String[] descriptions = new String[recordCount];
+        int count = 0;
+        byte[] scratch = new byte[256];
+        for (int position = HEADER_SIZE; position < writePosition; ) {
+            int length = buffer.getInt(position);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            days[count] = buffer.getLong(position + Integer.BYTES);
+            buffer.get(position + Integer.BYTES + Long.BYTES, scratch, 0, length);
+            descriptions[count++] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            position += RECORD_OVERHEAD + length;
+        }
+        store.addAll(days, descriptions, count);
+        return count;
+    }
+
+    /**
+     * Append an event to the log
+     *
+     * @param epochDay The day of the event
+     * @param description The event description
+     */
+    public synchronized void append(long epochDay, String description) {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        int recordSize = RECORD_OVERHEAD + bytes.length;
+        // Room for the record and the end marker after it
+        ensureCapacity((long) writePosition + recordSize + Integer.BYTES);
+
+        int position = writePosition;
+        buffer.putInt(position + recordSize, 0);
+        buffer.putLong(position + Integer.BYTES, epochDay);
+        buffer.put(position + Integer.BYTES + Long.BYTES, bytes);
+        buffer.putInt(position + recordSize - Integer.BYTES, checksum(buffer, position, bytes.length));
+        // Written last; whatever order the pages reach the disk in, the checksum catches a torn record
+        buffer.putInt(position, bytes.length);
+
+        writePosition += recordSize;
+        recordCount++;
+        if (!groupCommit) {
+            flush();
+        }
+    }
+
+    /**
+     * Force all appended records to disk
+     */
+    public synchronized void flush() {
+        if (flushedPosition < writePosition) {
+            buffer.force(flushedPosition, writePosition - flushedPosition + Integer.BYTES);
+            flushedPosition = writePosition;
+        }
+    }
+
+    /**
+     * Rewrite the log without the events that fell out of the retention window
+     *
+     * @return The number of records dropped
+     * @throws IOException If the compacted log cannot be written
+     */
+    public synchronized int compact() throws IOException {
+        long oldestKept = retentionDays > 0 ? LocalDate.now().minusDays(retentionDays).toEpochDay() : Long.MIN_VALUE;
+        int keptBytes = 0;
+        int dropped = 0;
+        for (int position = HEADER_SIZE; position < writePosition; ) {
+            int recordSize = RECORD_OVERHEAD + buffer.getInt(position);
+            if (buffer.getLong(position + Integer.BYTES) >= oldestKept) {
+                keptBytes += recordSize;
+            } else {
+                dropped++;
+            }
+            position += recordSize;
+        }
+        if (dropped == 0) {
+            return 0;
+        }
+
+        flush();
+        Path compacted = compactionPath(path);
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer output = target.map(FileChannel.MapMode.READ_WRITE, 0,
+                    capacityFor(HEADER_SIZE + keptBytes + Integer.BYTES));
+            output.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION);
+            int outputPosition = HEADER_SIZE;
+            for (int position = HEADER_SIZE; position < writePosition; ) {
+                int recordSize = RECORD_OVERHEAD + buffer.getInt(position);
+                if (buffer.getLong(position + Integer.BYTES) >= oldestKept) {
+                    // Records are copied as is, checksum included
+                    output.put(outputPosition, buffer, position, recordSize);
+                    outputPosition += recordSize;
+                }
+                position += recordSize;
+            }
+            output.force();
+        }
+
+        Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel.close();
+        map();
+        return dropped;
+    }
+
+    /**
+     * @return The number of records in the log
+     */
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        maintenance.shutdownNow();
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Scheduled tasks must not throw: an exception cancels every later run of the task
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // The records stay dirty in the mapping; the next run forces them again
+            logger.warn("Failed to flush calendar event log {}", path, e);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            // The current log stays in place; the next run tries again
+            logger.warn("Failed to compact calendar event log {}", path, e);
+        }
+    }
+
+    /**
+     * Map the log file, writing the header to a new file, and find the end of the valid records
+     */
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityFor(size));
+        if (size == 0) {
+            buffer.putInt(0, MAGIC).putInt(Integer.BYTES, VERSION).putInt(HEADER_SIZE, 0);
+            buffer.force();
+        } else if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            channel.close();
+            throw new IOException(path + " is not a calendar event log");
+        }
+
+        int position = HEADER_SIZE;
+        int count = 0;
+        while (position + RECORD_OVERHEAD <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || (long) position + RECORD_OVERHEAD + length > buffer.capacity()
+                    || buffer.getInt(position + RECORD_OVERHEAD - Integer.BYTES + length) != checksum(buffer, position, length)) {
+                break;
+            }
+            position += RECORD_OVERHEAD + length;
+            count++;
+        }
+        writePosition = position;
+        flushedPosition = position;
+        recordCount = count;
+    }
+
+    private void ensureCapacity(long required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Calendar event log " + path + " is full; compact it or raise the retention");
+        }
+        try {
+            flush();
+            // Mapping past the end of the file grows it; the old mapping is released by the garbage collector
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacityFor(required));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Grow the mapping in powers of two so appends rarely remap
+     */
+    private static long capacityFor(long required) {
+        long capacity = MIN_CAPACITY;
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        return Math.min(capacity, Integer.MAX_VALUE);
+    }
+
+    private static int checksum(ByteBuffer buffer, int recordPosition, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(recordPosition + Integer.BYTES, Long.BYTES + length));
+        return (int) crc.getValue();
+    }
+
+    private static Path compactionPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".compacting");
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.toolusepattern.calendar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Thread-safe calendar event store keyed by epoch day.
+ * <p>
+ * Days are kept in a {@link ConcurrentSkipListMap}, so a day or the start of a range is found in
+ * logarithmic time and reads never lock. Each day holds an immutable list of its events. Adding an event
+ * replaces only that day's list, so an insert costs O(log days + events that day) regardless of the
+ * size of the calendar. Writers are serialized so events on the same day keep their insertion order.
+ */
+public class EventStore {
+
+    private final ConcurrentSkipListMap<Long, List<String>> days = new ConcurrentSkipListMap<>();
+
+    /**
+     * Add an event on a day, keeping any events already scheduled that day
+     *
+     * @param epochDay The day, as returned by {@link java.time.LocalDate#toEpochDay()}
+     * @param description The event description
+     */
+    public synchronized void add(long epochDay, String description) {
+        days.put(epochDay, append(days.get(epochDay), List.of(description)));
+    }
+
+    /**
+     * Add many events in one pass, e.g. when restoring the store from an {@link EventLog}.
+     * Events on the same day keep their relative order and follow any events already in the store.
+     *
+     * @param epochDays The day of each event
+     * @param descriptions The description of each event
+     * @param count Number of leading entries of both arrays to add
+     */
+    public synchronized void addAll(long[] epochDays, String[] descriptions, int count) {
+        // Group by day first, so each day's list is replaced once rather than once per event
+        Map<Long, List<String>> added = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            added.computeIfAbsent(epochDays[i], day -> new ArrayList<>()).add(descriptions[i]);
+        }
+        added.forEach((day, events) -> days.put(day, append(days.get(day), events)));
+    }
+
+    /**
+     * Get the events scheduled on a day
+     *
+     * @param epochDay The day
+     * @return The events in insertion order, empty if none
+     */
+    public List<String> eventsOn(long epochDay) {
+        return days.getOrDefault(epochDay, List.of());
+    }
+
+    /**
+     * Get every day with events in an inclusive range
+     *
+     * @param fromEpochDay The first day of the range
+     * @param toEpochDay The last day of the range
+     * @return The matching days in ascending order
+     */
+    public List<DayEvents> eventsBetween(long fromEpochDay, long toEpochDay) {
+        List<DayEvents> result = new ArrayList<>();
+        if (fromEpochDay > toEpochDay) {
+            return result;
+        }
+        days.subMap(fromEpochDay, true, toEpochDay, true).forEach((day, events) -> result.add(new DayEvents(day, events)));
+        return result;
+    }
+
+    /**
+     * Find days without any events in an inclusive range
+     *
+     * @param fromEpochDay The first day of the range
+     * @param toEpochDay The last day of the range
+     * @param limit Maximum number of free days to return
+     * @return The free days in ascending order
+     */
+    public long[] freeDays(long fromEpochDay, long toEpochDay, int limit) {
+        long[] free = new long[(int) Math.max(0, Math.min(limit, toEpochDay - fromEpochDay + 1))];
+        if (free.length == 0) {
+            return free;
+        }
+        int found = 0;
+        Long next = days.ceilingKey(fromEpochDay);
+        for (long day = fromEpochDay; day <= toEpochDay && found < free.length; day++) {
+            if (next != null && next == day) {
+                next = days.higherKey(day);
+            } else {
+                free[found++] = day;
+            }
+        }
+        return found == free.length ? free : Arrays.copyOf(free, found);
+    }
+
+    /**
+     * @return The number of days that have at least one event
+     */
+    public int dayCount() {
+        return days.size();
+    }
+
+    private static List<String> append(List<String> existing, List<String> added) {
+        if (existing == null) {
+            return List.copyOf(added);
+        }
+        List<String> events = new ArrayList<>(existing.size() + added.size());
+        events.addAll(existing);
+        events.addAll(added);
+        return List.copyOf(events);
+    }
+
+    /**
+     * Events scheduled on one day
+     *
+     * @param epochDay The day
+     * @param events The events in insertion order
+     */
+    public record DayEvents(long epochDay, List<String> events) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.toolusepattern.config;
+
+import com.example.toolusepattern.calendar.EventLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration of where calendar events are kept
+ */
+@Configuration
+public class CalendarConfig {
+
+    /**
+     * Durable log for scheduled events, only created when {@code calendar.persistence=log}.
+     * Without it, events live in memory and are lost on restart.
+     *
+     * @param path The log file
+     * @param groupCommit Whether appends are flushed to disk periodically instead of one by one
+     * @param flushIntervalMs How often the group-commit flusher runs
+     * @param compactionIntervalMs How often to compact the log, 0 to disable periodic compaction
+     * @param retentionDays How many days of past events compaction keeps, 0 to keep all
+     * @return The open event log
+     * @throws IOException If the log cannot be opened
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "calendar.persistence", havingValue = "log")
+    public EventLog eventLog(
+            @Value("${calendar.log.path:data/calendar-events.log}") String path,
+            @Value("${calendar.log.group-commit:true}") boolean groupCommit,
+            @Value("${calendar.log.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${calendar.log.compaction-interval-ms:3600000}") long compactionIntervalMs,
+            @Value("${calendar.log.retention-days:365}") int retentionDays) throws IOException {
+        return EventLog.open(Path.of(path), groupCommit, flushIntervalMs, compactionIntervalMs, retentionDays);
+    }
+}
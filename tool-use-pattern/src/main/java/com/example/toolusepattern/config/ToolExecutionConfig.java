@@ -0,0 +1,42 @@
+package com.example.toolusepattern.config;
+
+import com.example.toolusepattern.execution.ParallelToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration of how tool calls requested by the model are executed
+ */
+@Configuration
+public class ToolExecutionConfig {
+
+    /**
+     * Executor for tool calls. Tools mostly wait on I/O, so each call gets its own virtual thread.
+     *
+     * @return A virtual-thread-per-task executor
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService toolExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Tool calling manager that runs independent tool calls from the same model turn in parallel.
+     * Replaces the default manager picked up by the chat model auto-configuration.
+     *
+     * @param toolExecutor Executor for the parallel tool calls
+     * @param toolTimeoutMs Time budget for each non-stateful tool call
+     * @return The tool calling manager
+     */
+    @Bean
+    public ToolCallingManager toolCallingManager(
+            ExecutorService toolExecutor,
+            @Value("${tool-use.parallel.tool-timeout-ms:10000}") long toolTimeoutMs) {
+        return new ParallelToolCallingManager(ToolCallingManager.builder().build(), toolExecutor, toolTimeoutMs);
+    }
+}
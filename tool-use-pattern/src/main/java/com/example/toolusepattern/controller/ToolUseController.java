@@ -1,8 +1,18 @@
 package com.example.toolusepattern.controller;
 
+import com.example.toolusepattern.execution.ToolCache;
+import com.example.toolusepattern.execution.ToolCacheStats;
+import com.example.toolusepattern.model.ToolUseResult;
+import com.example.toolusepattern.router.IntentRouter;
+import com.example.toolusepattern.router.RouterStats;
 import com.example.toolusepattern.service.ToolUseService;
+import com.example.toolusepattern.weather.WeatherCache;
+import com.example.toolusepattern.weather.WeatherStats;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * Controller for the Tool Use Pattern API
  */
@@ -11,19 +21,61 @@ import org.springframework.web.bind.annotation.*;
 public class ToolUseController {
 
     private final ToolUseService toolUseService;
+    private final WeatherCache weatherCache;
+    private final ToolCache toolCache;
+    private final IntentRouter intentRouter;
 
-    public ToolUseController(ToolUseService toolUseService) {
+    public ToolUseController(ToolUseService toolUseService, WeatherCache weatherCache, ToolCache toolCache,
+                             IntentRouter intentRouter) {
         this.toolUseService = toolUseService;
+        this.weatherCache = weatherCache;
+        this.toolCache = toolCache;
+        this.intentRouter = intentRouter;
     }
 
     /**
      * Process a user query using the tool use pattern
      * 
      * @param query The user's query
-     * @return The response from the LLM, potentially using tools
+     * @return The response, with the answer path (FAST_PATH or LLM) and any routed intent in response headers
      */
     @GetMapping
-    public String processQuery(@RequestParam String query) {
-        return toolUseService.processQuery(query);
+    public ResponseEntity<String> processQuery(@RequestParam String query) {
+        ToolUseResult result = toolUseService.processQuery(query);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().header("X-Answer-Path", result.getPath().name());
+        if (result.getIntent() != null) {
+            response.header("X-Intent", result.getIntent());
+        }
+        return response.body(result.getAnswer());
+    }
+
+    /**
+     * Get weather cache and provider statistics
+     * 
+     * @return Cache hits, coalesced requests and provider latency
+     */
+    @GetMapping("/weather/stats")
+    public WeatherStats getWeatherStats() {
+        return weatherCache.stats();
+    }
+
+    /**
+     * Get per-tool result cache statistics
+     * 
+     * @return Hits, misses, hit ratio and invalidations by tool name
+     */
+    @GetMapping("/tools/cache/stats")
+    public Map<String, ToolCacheStats> getToolCacheStats() {
+        return toolCache.stats();
+    }
+
+    /**
+     * Get intent router statistics
+     * 
+     * @return Queries seen, fast-path hits and hit rate, and hits by intent
+     */
+    @GetMapping("/router/stats")
+    public RouterStats getRouterStats() {
+        return intentRouter.stats();
     }
 }
@@ -0,0 +1,11 @@
+package com.example.toolusepattern.execution;
+
+/**
+ * Lifetime of cached tool results
+ */
+public enum CacheScope {
+    /** Results are reused only within the user request that produced them */
+    REQUEST,
+    /** Results are shared by all requests until they expire or are invalidated */
+    GLOBAL
+}
@@ -0,0 +1,31 @@
+package com.example.toolusepattern.execution;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an idempotent {@code @Tool} method whose results can be reused for identical (normalized) arguments
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableTool {
+
+    /**
+     * @return How long a result stays valid, as an ISO-8601 duration
+     */
+    String ttl() default "PT5M";
+
+    /**
+     * @return Whether results are shared across requests or reused only within one request
+     */
+    CacheScope scope() default CacheScope.GLOBAL;
+
+    /**
+     * @return Maximum number of cached results for this tool in the global scope
+     */
+    int maxEntries() default 1000;
+}
@@ -0,0 +1,21 @@
+package com.example.toolusepattern.execution;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a mutating {@code @Tool} method whose successful calls discard the cached results of other tools
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface InvalidatesTool {
+
+    /**
+     * @return Names of the tools whose cached results become stale when this tool runs
+     */
+    String[] value();
+}
@@ -0,0 +1,143 @@
+package com.example.toolusepattern.execution;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Tool callback that memoizes results of a {@link CacheableTool} and applies the invalidations of an {@link InvalidatesTool}
+ */
+public class MemoizingToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final ToolCache toolCache;
+    private final ObjectMapper objectMapper;
+    private final CacheableTool cacheable;
+    private final String[] invalidates;
+    private final long ttlNanos;
+
+    /**
+     * @param delegate The tool to wrap
+     * @param toolCache The cache to store results in
+     * @param objectMapper Mapper used to normalize JSON arguments
+     * @param cacheable Caching policy, or null if the tool's results are not cached
+     * @param invalidates Tools whose cached results this tool invalidates, possibly empty
+     */
+    public MemoizingToolCallback(ToolCallback delegate, ToolCache toolCache, ObjectMapper objectMapper,
+                                 CacheableTool cacheable, String[] invalidates) {
+        this.delegate = delegate;
+        this.toolCache = toolCache;
+        this.objectMapper = objectMapper;
+        this.cacheable = cacheable;
+        this.invalidates = invalidates;
+        this.ttlNanos = cacheable == null ? 0 : Duration.parse(cacheable.ttl()).toNanos();
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return execute(toolInput, () -> delegate.call(toolInput));
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return execute(toolInput, () -> delegate.call(toolInput, toolContext));
+    }
+
+    private String execute(String toolInput, Supplier<String> invocation) {
+        if (cacheable == null) {
+            try {
+                return invocation.get();
+            } finally {
+                // Invalidate only after the mutation, so concurrent readers cannot cache pre-mutation results
+                for (String toolName : invalidates) {
+                    toolCache.invalidate(toolName);
+                }
+            }
+        }
+
+        String toolName = getToolDefinition().name();
+        String key = normalize(toolInput);
+        String cached = toolCache.get(toolName, key, cacheable.scope());
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = toolCache.generation(toolName);
+        String result = invocation.get();
+        toolCache.put(toolName, key, result, cacheable.scope(), ttlNanos, cacheable.maxEntries(), generation);
+        return result;
+    }
+
+    /**
+     * Canonicalize JSON arguments: object keys sorted, string values trimmed with whitespace collapsed
+     */
+    private String normalize(String toolInput) {
+        if (toolInput == null) {
+            return "";
+        }
+        try {
+            StringBuilder canonical = new StringBuilder(toolInput.length());
+            appendCanonical(objectMapper.readTree(toolInput), canonical);
+            return canonical.toString();
+        } catch (JsonProcessingException e) {
+            return toolInput.trim();
+        }
+    }
+
+    private void appendCanonical(JsonNode node, StringBuilder canonical) throws JsonProcessingException {
+        if (node == null || node.isNull()) {
+            canonical.append("null");
+        } else if (node.isObject()) {
+            TreeMap<String, JsonNode> fields = new TreeMap<>();
+            for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                fields.put(name, node.get(name));
+            }
+            canonical.append('{');
+            boolean first = true;
+            for (var field : fields.entrySet()) {
+                if (!first) {
+                    canonical.append(',');
+                }
+                first = false;
+                canonical.append(objectMapper.writeValueAsString(field.getKey())).append(':');
+                appendCanonical(field.getValue(), canonical);
+            }
+            canonical.append('}');
+        } else if (node.isArray()) {
+            canonical.append('[');
+            boolean first = true;
+            for (JsonNode element : node) {
+                if (!first) {
+                    canonical.append(',');
+                }
+                first = false;
+                appendCanonical(element, canonical);
+            }
+            canonical.append(']');
+        } else if (node.isTextual()) {
+            canonical.append(objectMapper.writeValueAsString(node.textValue().trim().replaceAll("\\s+", " ")));
+        } else {
+            canonical.append(node);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.toolusepattern.execution;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tool calling manager that runs the independent tool calls of one model turn concurrently.
+ * <p>
+ * The leading run of calls that go to non-stateful {@link PrefetchedToolCallback}s is executed in parallel.
+ * The delegate manager then builds the tool responses in the order the model requested them, picking up the
+ * precomputed results and invoking everything else (stateful tools and the calls that follow them) sequentially
+ * as before. Summed tool latency therefore becomes max() latency.
+ * <p>
+ * Every non-stateful call, prefetched or not, is limited to the tool timeout. A call that fails or times out
+ * gets an error message as its result instead of being invoked again.
+ */
+public class ParallelToolCallingManager implements ToolCallingManager {
+
+    private final ToolCallingManager delegate;
+    private final ExecutorService toolExecutor;
+    private final long toolTimeoutMs;
+
+    public ParallelToolCallingManager(ToolCallingManager delegate, ExecutorService toolExecutor, long toolTimeoutMs) {
+        this.delegate = delegate;
+        this.toolExecutor = toolExecutor;
+        this.toolTimeoutMs = toolTimeoutMs;
+    }
+
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        List<AssistantMessage.ToolCall> parallelCalls = new ArrayList<>();
+        Map<String, PrefetchedToolCallback> callbacks = prefetchableCallbacks(prompt);
+        for (AssistantMessage.ToolCall toolCall : toolCalls(chatResponse)) {
+            PrefetchedToolCallback callback = callbacks.get(toolCall.name());
+            if (callback == null || callback.isStateful()) {
+                // Later calls may depend on this one's side effects
+                break;
+            }
+            parallelCalls.add(toolCall);
+        }
+
+        PrefetchedToolCallback.publish(prefetch(parallelCalls, callbacks), this);
+        try {
+            return delegate.executeToolCalls(prompt, chatResponse);
+        } finally {
+            PrefetchedToolCallback.clear();
+        }
+    }
+
+    private Map<String, Deque<String>> prefetch(List<AssistantMessage.ToolCall> toolCalls,
+                                                Map<String, PrefetchedToolCallback> callbacks) {
+        List<Future<String>> futures = new ArrayList<>(toolCalls.size());
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            PrefetchedToolCallback callback = callbacks.get(toolCall.name());
+            futures.add(toolExecutor.submit(() -> callback.getDelegate().call(toolCall.arguments())));
+        }
+
+        // All calls started together, so a shared deadline gives each call its own timeout
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(toolTimeoutMs);
+        Map<String, Deque<String>> results = new HashMap<>();
+        for (int i = 0; i < toolCalls.size(); i++) {
+            AssistantMessage.ToolCall toolCall = toolCalls.get(i);
+            Future<String> future = futures.get(i);
+            String result;
+            try {
+                result = result(toolCall.name(), future, deadline);
+            } catch (InterruptedException e) {
+                futures.forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                break;
+            }
+            results.computeIfAbsent(PrefetchedToolCallback.key(toolCall.name(), toolCall.arguments()),
+                    key -> PrefetchedToolCallback.newResultQueue()).add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Run a tool call that was not prefetched within the tool timeout
+     *
+     * @param toolName The name of the tool
+     * @param call The tool invocation
+     * @return The tool result, or an error message if the call failed or timed out
+     */
+    String callWithTimeout(String toolName, Callable<String> call) {
+        Future<String> future = toolExecutor.submit(call);
+        try {
+            return result(toolName, future, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(toolTimeoutMs));
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return "Tool " + toolName + " was interrupted.";
+        }
+    }
+
+    private String result(String toolName, Future<String> future, long deadline) throws InterruptedException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return "Tool " + toolName + " timed out after " + toolTimeoutMs + " ms.";
+        } catch (ExecutionException e) {
+            return "Tool " + toolName + " failed: " + e.getCause().getMessage();
+        }
+    }
+
+    private static List<AssistantMessage.ToolCall> toolCalls(ChatResponse chatResponse) {
+        return chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(AssistantMessage::hasToolCalls)
+                .findFirst()
+                .map(AssistantMessage::getToolCalls)
+                .orElse(List.of());
+    }
+
+    private static Map<String, PrefetchedToolCallback> prefetchableCallbacks(Prompt prompt) {
+        Map<String, PrefetchedToolCallback> callbacks = new HashMap<>();
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options) {
+            for (var callback : options.getToolCallbacks()) {
+                if (callback instanceof PrefetchedToolCallback prefetched) {
+                    callbacks.put(prefetched.getToolDefinition().name(), prefetched);
+                }
+            }
+        }
+        return callbacks;
+    }
+}
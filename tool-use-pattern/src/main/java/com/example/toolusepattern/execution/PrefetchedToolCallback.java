@@ -0,0 +1,99 @@
+package com.example.toolusepattern.execution;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Tool callback that serves a result computed ahead of time by {@link ParallelToolCallingManager}
+ * and falls back to invoking the wrapped tool when no precomputed result is available. Within a turn of the
+ * manager, a non-stateful tool invoked this way is still limited to the manager's tool timeout.
+ */
+public class PrefetchedToolCallback implements ToolCallback {
+
+    private static final ThreadLocal<Map<String, Deque<String>>> PREFETCHED = new ThreadLocal<>();
+    private static final ThreadLocal<ParallelToolCallingManager> MANAGER = new ThreadLocal<>();
+
+    private final ToolCallback delegate;
+    private final boolean stateful;
+
+    public PrefetchedToolCallback(ToolCallback delegate, boolean stateful) {
+        this.delegate = delegate;
+        this.stateful = stateful;
+    }
+
+    public ToolCallback getDelegate() {
+        return delegate;
+    }
+
+    public boolean isStateful() {
+        return stateful;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        String prefetched = takePrefetched(toolInput);
+        return prefetched != null ? prefetched : invoke(() -> delegate.call(toolInput));
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        String prefetched = takePrefetched(toolInput);
+        return prefetched != null ? prefetched : invoke(() -> delegate.call(toolInput, toolContext));
+    }
+
+    static String key(String toolName, String toolInput) {
+        return toolName + '\u0000' + toolInput;
+    }
+
+    /**
+     * Make precomputed results, and the manager that times the remaining calls, visible to callbacks invoked on
+     * the current thread
+     */
+    static void publish(Map<String, Deque<String>> results, ParallelToolCallingManager manager) {
+        PREFETCHED.set(results);
+        MANAGER.set(manager);
+    }
+
+    static void clear() {
+        PREFETCHED.remove();
+        MANAGER.remove();
+    }
+
+    static Deque<String> newResultQueue() {
+        return new ArrayDeque<>(1);
+    }
+
+    private String invoke(Supplier<String> call) {
+        ParallelToolCallingManager manager = MANAGER.get();
+        if (manager == null || stateful) {
+            return call.get();
+        }
+        return manager.callWithTimeout(getToolDefinition().name(), call::get);
+    }
+
+    private String takePrefetched(String toolInput) {
+        Map<String, Deque<String>> results = PREFETCHED.get();
+        if (results == null) {
+            return null;
+        }
+        Deque<String> queue = results.get(key(getToolDefinition().name(), toolInput));
+        return queue == null ? null : queue.poll();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.toolusepattern.execution;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code @Tool} method that changes state.
+ * Stateful tools never run concurrently with other tool calls from the same model turn,
+ * and calls that come after them in the turn run only once they have finished.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatefulTool {
+}
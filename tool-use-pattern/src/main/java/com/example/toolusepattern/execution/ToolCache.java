@@ -0,0 +1,157 @@
+package com.example.toolusepattern.execution;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Store for memoized tool results, in a global scope shared by all requests and a per-request scope.
+ * <p>
+ * Every tool has a generation number that invalidation bumps. Entries remember the generation they were
+ * computed in and are ignored once it is outdated, so a result computed concurrently with an invalidating
+ * call can never be served afterwards.
+ */
+@Component
+public class ToolCache {
+
+    // Inheritable so that tool calls running on executor threads see the scope of the request that started them
+    private static final InheritableThreadLocal<Map<String, Entry>> REQUEST_SCOPE = new InheritableThreadLocal<>();
+
+    private final ConcurrentHashMap<String, ToolEntries> tools = new ConcurrentHashMap<>();
+
+    /**
+     * Open a request scope on the current thread; close it when the request completes
+     *
+     * @return The scope, to be used in a try-with-resources block
+     */
+    public RequestScope openRequestScope() {
+        Map<String, Entry> previous = REQUEST_SCOPE.get();
+        REQUEST_SCOPE.set(new ConcurrentHashMap<>());
+        return () -> {
+            if (previous == null) {
+                REQUEST_SCOPE.remove();
+            } else {
+                REQUEST_SCOPE.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Look up a cached result
+     *
+     * @param toolName The tool name
+     * @param key The normalized arguments
+     * @param scope The scope to look in
+     * @return The cached result, or null if absent, expired or invalidated
+     */
+    public String get(String toolName, String key, CacheScope scope) {
+        ToolEntries entries = entries(toolName);
+        Map<String, Entry> store = store(entries, scope);
+        Entry entry = store == null ? null : store.get(scopedKey(toolName, key, scope));
+
+        if (entry == null || entry.generation != entries.generation.get() || System.nanoTime() - entry.expiresAt >= 0) {
+            entries.misses.increment();
+            return null;
+        }
+        entries.hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Get the current generation of a tool, to be passed to {@link #put} once the result is computed
+     *
+     * @param toolName The tool name
+     * @return The generation number
+     */
+    public long generation(String toolName) {
+        return entries(toolName).generation.get();
+    }
+
+    /**
+     * Store a result computed during the given generation
+     *
+     * @param toolName The tool name
+     * @param key The normalized arguments
+     * @param value The tool result
+     * @param scope The scope to store in
+     * @param ttlNanos How long the result stays valid
+     * @param maxEntries Maximum number of global entries for the tool
+     * @param generation The generation observed before the tool was invoked
+     */
+    public void put(String toolName, String key, String value, CacheScope scope, long ttlNanos, int maxEntries,
+                    long generation) {
+        ToolEntries entries = entries(toolName);
+        Map<String, Entry> store = store(entries, scope);
+        if (store == null) {
+            return;
+        }
+        if (scope == CacheScope.GLOBAL && store.size() >= maxEntries) {
+            long now = System.nanoTime();
+            store.values().removeIf(entry -> now - entry.expiresAt >= 0);
+            if (store.size() >= maxEntries) {
+                return;
+            }
+        }
+        store.put(scopedKey(toolName, key, scope), new Entry(value, System.nanoTime() + ttlNanos, generation));
+    }
+
+    /**
+     * Discard every cached result of a tool, in all scopes
+     *
+     * @param toolName The tool name
+     */
+    public void invalidate(String toolName) {
+        ToolEntries entries = entries(toolName);
+        entries.generation.incrementAndGet();
+        entries.invalidations.increment();
+        entries.global.clear();
+    }
+
+    /**
+     * Get cache statistics for every tool seen so far
+     *
+     * @return Statistics by tool name
+     */
+    public Map<String, ToolCacheStats> stats() {
+        Map<String, ToolCacheStats> stats = new TreeMap<>();
+        tools.forEach((name, entries) -> stats.put(name, new ToolCacheStats(
+                entries.hits.sum(), entries.misses.sum(), entries.invalidations.sum(), entries.global.size())));
+        return stats;
+    }
+
+    private ToolEntries entries(String toolName) {
+        return tools.computeIfAbsent(toolName, name -> new ToolEntries());
+    }
+
+    private static Map<String, Entry> store(ToolEntries entries, CacheScope scope) {
+        return scope == CacheScope.GLOBAL ? entries.global : REQUEST_SCOPE.get();
+    }
+
+    private static String scopedKey(String toolName, String key, CacheScope scope) {
+        // The request scope holds every tool in one map
+        return scope == CacheScope.GLOBAL ? key : toolName + '\u0000' + key;
+    }
+
+    /**
+     * Handle that closes a request scope
+     */
+    public interface RequestScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private record Entry(String value, long expiresAt, long generation) {
+    }
+
+    private static final class ToolEntries {
+        final ConcurrentHashMap<String, Entry> global = new ConcurrentHashMap<>();
+        final AtomicLong generation = new AtomicLong();
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder invalidations = new LongAdder();
+    }
+}
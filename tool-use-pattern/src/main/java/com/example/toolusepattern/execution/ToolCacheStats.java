@@ -0,0 +1,43 @@
+package com.example.toolusepattern.execution;
+
+/**
+ * Point-in-time cache statistics of one tool
+ */
+public class ToolCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long invalidations;
+    private final int entries;
+
+    public ToolCacheStats(long hits, long misses, long invalidations, int entries) {
+        this.hits = hits;
+        this.misses = misses;
+        this.invalidations = invalidations;
+        this.entries = entries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return Number of results currently held in the global scope
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    public double getHitRatio() {
+        long calls = hits + misses;
+        return calls == 0 ? 0.0 : (double) hits / calls;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.toolusepattern.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbacks;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the tool callbacks handed to the model, applying the execution annotations of each {@code @Tool} method:
+ * {@link CacheableTool} and {@link InvalidatesTool} add memoization, and every callback is made prefetch-aware
+ * so {@link ParallelToolCallingManager} can run it concurrently unless it is a {@link StatefulTool}.
+ */
+@Component
+public class ToolCallbackFactory {
+
+    private final ToolCache toolCache;
+    private final ObjectMapper objectMapper;
+
+    public ToolCallbackFactory(ToolCache toolCache, ObjectMapper objectMapper) {
+        this.toolCache = toolCache;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Create callbacks for every {@code @Tool} method of the given objects
+     *
+     * @param toolObjects Objects with {@code @Tool}-annotated methods
+     * @return One callback per tool method
+     */
+    public ToolCallback[] create(Object... toolObjects) {
+        Map<String, Method> toolMethods = new HashMap<>();
+        for (Object toolObject : toolObjects) {
+            for (Method method : toolObject.getClass().getMethods()) {
+                Tool tool = method.getAnnotation(Tool.class);
+                if (tool != null) {
+                    toolMethods.put(tool.name().isEmpty() ? method.getName() : tool.name(), method);
+                }
+            }
+        }
+
+        List<ToolCallback> callbacks = new ArrayList<>();
+        for (ToolCallback callback : ToolCallbacks.from(toolObjects)) {
+            Method method = toolMethods.get(callback.getToolDefinition().name());
+            CacheableTool cacheable = method == null ? null : method.getAnnotation(CacheableTool.class);
+            InvalidatesTool invalidates = method == null ? null : method.getAnnotation(InvalidatesTool.class);
+            boolean stateful = method != null && method.isAnnotationPresent(StatefulTool.class);
+
+            ToolCallback wrapped = callback;
+            if (cacheable != null || invalidates != null) {
+                wrapped = new MemoizingToolCallback(callback, toolCache, objectMapper, cacheable,
+                        invalidates == null ? new String[0] : invalidates.value());
+            }
+            callbacks.add(new PrefetchedToolCallback(wrapped, stateful));
+        }
+        return callbacks.toArray(new ToolCallback[0]);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.toolusepattern.model;
+
+/**
+ * How a query was answered
+ */
+public enum AnswerPath {
+    /** Recognized by the intent router and answered by calling a tool directly */
+    FAST_PATH,
+    /** Answered by the model, possibly using tools */
+    LLM
+}
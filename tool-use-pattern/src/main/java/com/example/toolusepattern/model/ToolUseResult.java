@@ -0,0 +1,32 @@
+package com.example.toolusepattern.model;
+
+/**
+ * Answer to a tool use query, together with the path that produced it
+ */
+public class ToolUseResult {
+
+    private final String answer;
+    private final AnswerPath path;
+    private final String intent;
+
+    public ToolUseResult(String answer, AnswerPath path, String intent) {
+        this.answer = answer;
+        this.path = path;
+        this.intent = intent;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+
+    public AnswerPath getPath() {
+        return path;
+    }
+
+    /**
+     * @return The intent recognized by the router, or null if the query went to the model
+     */
+    public String getIntent() {
+        return intent;
+    }
+}
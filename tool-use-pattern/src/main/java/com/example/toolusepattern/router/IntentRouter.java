@@ -0,0 +1,125 @@
+package com.example.toolusepattern.router;
+
+import com.example.toolusepattern.model.AnswerPath;
+import com.example.toolusepattern.model.ToolUseResult;
+import com.example.toolusepattern.tools.CalendarTool;
+import com.example.toolusepattern.tools.WeatherTool;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pre-LLM router that recognizes trivially answerable queries with precompiled patterns and answers them
+ * by calling the tools directly. A pattern must match the whole query, so only high-confidence intents
+ * take the fast path; everything else is left to the model. An intent whose tool cannot answer, e.g. for an
+ * unknown location, also falls through to the model.
+ */
+@Component
+public class IntentRouter {
+
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+    private static final String WHAT_IS = "(?:(?:what's|what\\s+is|whats|tell\\s+me)\\s+)?";
+    /**
+     * Time, unit and preposition words that never belong to a location name. A query carrying such a qualifier
+     * (e.g. "in tokyo tomorrow", "in new york in celsius") needs the model, so the location must not absorb it.
+     */
+    private static final String QUALIFIER = "(?:now|right|today|tonight|tomorrow|yesterday|this|next|later|week|weekend"
+            + "|morning|afternoon|evening|night|in|on|at|for|by|during|celsius|fahrenheit|centigrade|degrees"
+            + "|metric|imperial|forecast)\\b";
+    private static final String LOCATION_WORD = "(?!" + QUALIFIER + ")\\p{L}[\\p{L}.'-]*";
+
+    private final List<Intent> intents;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final Map<String, LongAdder> hitsByIntent = new ConcurrentHashMap<>();
+
+    public IntentRouter(CalendarTool calendarTool, WeatherTool weatherTool) {
+        this.intents = List.of(
+                new Intent("current-date",
+                        Pattern.compile(WHAT_IS + "(?:today's|todays|the\\s+current|the|current)\\s+date(?:\\s+today)?"
+                                + "|what\\s+day\\s+is\\s+(?:it\\s+)?today", FLAGS),
+                        matcher -> Optional.of("Today's date is " + calendarTool.getCurrentDate() + ".")),
+                new Intent("current-weather",
+                        Pattern.compile("(?:" + WHAT_IS + "|how's\\s+|how\\s+is\\s+)(?:the\\s+)?(?:current\\s+)?weather"
+                                + "(?:\\s+like)?\\s+(?:in|for|at)\\s+"
+                                // A single location only; comparisons need the model to combine the answers
+                                + "(?!.*\\b(?:and|or|vs)\\b)(" + LOCATION_WORD + "(?:\\s+" + LOCATION_WORD + "){0,4})"
+                                + "(?:\\s+(?:right\\s+)?now|\\s+today)?", FLAGS),
+                        matcher -> weatherTool.findCurrentWeather(matcher.group(1))),
+                new Intent("events-on-day",
+                        Pattern.compile("(?:check\\s+my\\s+calendar\\s+for\\s+events|(?:what's|what\\s+is)\\s+on\\s+my\\s+calendar"
+                                + "|(?:do\\s+i\\s+have\\s+)?(?:any\\s+)?events)\\s+(today|tomorrow|(?:on|for)\\s+\\d{4}-\\d{2}-\\d{2})",
+                                FLAGS),
+                        matcher -> Optional.of(calendarTool.checkEvents(resolveDay(matcher.group(1))))));
+    }
+
+    /**
+     * Try to answer a query without the model
+     *
+     * @param userQuery The user's query
+     * @return The templated answer, or empty if the query must go to the model
+     */
+    public Optional<ToolUseResult> route(String userQuery) {
+        queries.increment();
+        String normalizedQuery = normalize(userQuery);
+
+        for (Intent intent : intents) {
+            Matcher matcher = intent.pattern.matcher(normalizedQuery);
+            if (matcher.matches()) {
+                Optional<String> answer = intent.answer.apply(matcher);
+                if (answer.isEmpty()) {
+                    // The tool has no answer for these arguments; the model can still explain or ask back
+                    return Optional.empty();
+                }
+                hits.increment();
+                hitsByIntent.computeIfAbsent(intent.name, name -> new LongAdder()).increment();
+                return Optional.of(new ToolUseResult(answer.get(), AnswerPath.FAST_PATH, intent.name));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get a snapshot of the router statistics
+     *
+     * @return Query count, fast-path hits and hits per intent
+     */
+    public RouterStats stats() {
+        Map<String, Long> byIntent = new TreeMap<>();
+        hitsByIntent.forEach((name, count) -> byIntent.put(name, count.sum()));
+        return new RouterStats(queries.sum(), hits.sum(), byIntent);
+    }
+
+    /**
+     * Trim, unify apostrophes and drop politeness and trailing punctuation so the patterns stay simple
+     */
+    private static String normalize(String userQuery) {
+        String normalized = userQuery.trim().replace('’', '\'').replaceAll("\\s+", " ");
+        normalized = normalized.replaceFirst("(?i)^please\\s+", "").replaceFirst("(?i),?\\s+please$", "");
+        return normalized.replaceFirst("[\\s?!.]+$", "");
+    }
+
+    private static String resolveDay(String day) {
+        String lower = day.toLowerCase(Locale.ROOT);
+        if (lower.equals("today")) {
+            return LocalDate.now().toString();
+        }
+        if (lower.equals("tomorrow")) {
+            return LocalDate.now().plusDays(1).toString();
+        }
+        return lower.replaceFirst("^(?:on|for)\\s+", "");
+    }
+
+    private record Intent(String name, Pattern pattern, Function<Matcher, Optional<String>> answer) {
+    }
+}
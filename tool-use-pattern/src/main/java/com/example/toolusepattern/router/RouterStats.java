@@ -0,0 +1,35 @@
+package com.example.toolusepattern.router;
+
+import java.util.Map;
+
+/**
+ * Point-in-time statistics of the {@link IntentRouter}
+ */
+public class RouterStats {
+
+    private final long queries;
+    private final long fastPathHits;
+    private final Map<String, Long> hitsByIntent;
+
+    public RouterStats(long queries, long fastPathHits, Map<String, Long> hitsByIntent) {
+        this.queries = queries;
+        this.fastPathHits = fastPathHits;
+        this.hitsByIntent = hitsByIntent;
+    }
+
+    public long getQueries() {
+        return queries;
+    }
+
+    public long getFastPathHits() {
+        return fastPathHits;
+    }
+
+    public Map<String, Long> getHitsByIntent() {
+        return hitsByIntent;
+    }
+
+    public double getHitRate() {
+        return queries == 0 ? 0.0 : (double) fastPathHits / queries;
+    }
+}
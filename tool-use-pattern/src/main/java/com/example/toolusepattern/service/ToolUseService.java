@@ -1,5 +1,10 @@
 package com.example.toolusepattern.service;
 
+import com.example.toolusepattern.execution.ToolCache;
+import com.example.toolusepattern.execution.ToolCallbackFactory;
+import com.example.toolusepattern.model.AnswerPath;
+import com.example.toolusepattern.model.ToolUseResult;
+import com.example.toolusepattern.router.IntentRouter;
 import com.example.toolusepattern.tools.CalendarTool;
 import com.example.toolusepattern.tools.WeatherTool;
 import org.springframework.ai.chat.client.ChatClient;
@@ -8,10 +13,13 @@ import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.prompt.SystemPromptTemplate;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Service that coordinates the use of tools by the LLM
@@ -20,8 +28,10 @@ import java.util.Objects;
 public class ToolUseService {
 
     private final ChatClient chatClient;
-    private final WeatherTool weatherTool;
-    private final CalendarTool calendarTool;
+    private final ToolCallback[] toolCallbacks;
+    private final ToolCache toolCache;
+    private final IntentRouter intentRouter;
+    private final boolean routerEnabled;
     
     private static final String SYSTEM_PROMPT = """
             You are a helpful assistant with access to tools that can provide real-time information.
@@ -32,27 +42,42 @@ public class ToolUseService {
             Always be helpful, concise, and accurate.
             """;
 
-    public ToolUseService(ChatClient.Builder chatClient, WeatherTool weatherTool, CalendarTool calendarTool) {
+    public ToolUseService(ChatClient.Builder chatClient, WeatherTool weatherTool, CalendarTool calendarTool,
+                          ToolCallbackFactory toolCallbackFactory, ToolCache toolCache, IntentRouter intentRouter,
+                          @Value("${tool-use.router.enabled:true}") boolean routerEnabled) {
         this.chatClient = chatClient.build();
-        this.weatherTool = weatherTool;
-        this.calendarTool = calendarTool;
+        this.toolCallbacks = toolCallbackFactory.create(weatherTool, calendarTool);
+        this.toolCache = toolCache;
+        this.intentRouter = intentRouter;
+        this.routerEnabled = routerEnabled;
     }
 
     /**
      * Process a user query using the appropriate tools
      * 
      * @param userQuery The user's query
-     * @return The response from the LLM, potentially using tools
+     * @return The answer together with the path that produced it
      */
-    public String processQuery(String userQuery) {
+    public ToolUseResult processQuery(String userQuery) {
+        // Trivial, unambiguous queries are answered by the tools directly, without a model round trip
+        if (routerEnabled) {
+            Optional<ToolUseResult> routed = intentRouter.route(userQuery);
+            if (routed.isPresent()) {
+                return routed.get();
+            }
+        }
+        
         Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
         Message userMessage = new UserMessage(userQuery);
         
         Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
         
-        // Configure the chat client to use our tools
-        ChatResponse response = chatClient.prompt(prompt).tools(weatherTool, calendarTool).call().chatResponse();
-        
-        return Objects.requireNonNull(response).getResult().getOutput().getText();
+        // Configure the chat client to use our tools; independent calls in one turn run in parallel
+        try (ToolCache.RequestScope ignored = toolCache.openRequestScope()) {
+            ChatResponse response = chatClient.prompt(prompt).tools(toolCallbacks).call().chatResponse();
+            
+            String answer = Objects.requireNonNull(response).getResult().getOutput().getText();
+            return new ToolUseResult(answer, AnswerPath.LLM, null);
+        }
     }
 }
@@ -1,12 +1,19 @@
 package com.example.toolusepattern.tools;
 
+import com.example.toolusepattern.calendar.EventLog;
+import com.example.toolusepattern.calendar.EventStore;
+import com.example.toolusepattern.execution.CacheScope;
+import com.example.toolusepattern.execution.CacheableTool;
+import com.example.toolusepattern.execution.InvalidatesTool;
+import com.example.toolusepattern.execution.StatefulTool;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Calendar tool that provides date-related information and scheduling capabilities
@@ -14,19 +21,27 @@ import java.util.Map;
 @Component
 public class CalendarTool {
 
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MAX_FREE_DAYS = 31;
+
     // Simulated calendar data store
-    private final Map<String, String> events;
+    private final EventStore events;
+    // Durable log of scheduled events, if persistence is enabled
+    private final EventLog eventLog;
     
-    public CalendarTool() {
-        // Initialize with some sample events
-        events = new HashMap<>();
-        
+    public CalendarTool(Optional<EventLog> eventLog) {
+        events = new EventStore();
+        this.eventLog = eventLog.orElse(null);
+        if (this.eventLog != null) {
+            this.eventLog.replayInto(events);
+        }
+
+        // Initialize with some sample events; they are not written to the log, so restarts don't duplicate them
         LocalDate today = LocalDate.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         
-        events.put(today.format(formatter), "Team meeting at 10:00 AM");
-        events.put(today.plusDays(1).format(formatter), "Client presentation at 2:00 PM");
-        events.put(today.plusDays(3).format(formatter), "Product launch planning at 11:00 AM");
+        events.add(today.toEpochDay(), "Team meeting at 10:00 AM");
+        events.add(today.plusDays(1).toEpochDay(), "Client presentation at 2:00 PM");
+        events.add(today.plusDays(3).toEpochDay(), "Product launch planning at 11:00 AM");
     }
 
     /**
@@ -34,10 +49,11 @@ public class CalendarTool {
      * 
      * @return The current date in yyyy-MM-dd format
      */
+    @CacheableTool(ttl = "PT1M", scope = CacheScope.REQUEST)
     @Tool(description = "Get the current date")
     public String getCurrentDate() {
         LocalDate today = LocalDate.now();
-        return today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        return today.format(DATE_FORMAT);
     }
     
     /**
@@ -46,13 +62,19 @@ public class CalendarTool {
      * @param date The date to check in yyyy-MM-dd format
      * @return Event information or a message indicating no events
      */
+    @CacheableTool
     @Tool(description = "Check for events on a specific date (format: yyyy-MM-dd)")
     public String checkEvents(String date) {
-        if (events.containsKey(date)) {
-            return "Events for " + date + ": " + events.get(date);
-        } else {
+        LocalDate day = parseDate(date);
+        if (day == null) {
+            return invalidDate(date);
+        }
+
+        List<String> dayEvents = events.eventsOn(day.toEpochDay());
+        if (dayEvents.isEmpty()) {
             return "No events scheduled for " + date;
         }
+        return "Events for " + date + ": " + String.join("; ", dayEvents);
     }
     
     /**
@@ -62,9 +84,102 @@ public class CalendarTool {
      * @param eventDescription The description of the event
      * @return Confirmation message
      */
+    @StatefulTool
+    @InvalidatesTool({ "checkEvents", "eventsBetween", "findFreeDays" })
     @Tool(description = "Schedule a new event on a specific date (format: yyyy-MM-dd)")
     public String scheduleEvent(String date, String eventDescription) {
-        events.put(date, eventDescription);
+        LocalDate day = parseDate(date);
+        if (day == null) {
+            return invalidDate(date);
+        }
+        if (eventDescription == null || eventDescription.isBlank()) {
+            return "An event description is required.";
+        }
+
+        if (eventLog == null) {
+            events.add(day.toEpochDay(), eventDescription);
+        } else {
+            // Logged first, so an event that is visible has also been recorded; the lock keeps both in the same order
+            synchronized (events) {
+                eventLog.append(day.toEpochDay(), eventDescription);
+                events.add(day.toEpochDay(), eventDescription);
+            }
+        }
         return "Event scheduled for " + date + ": " + eventDescription;
     }
+
+    /**
+     * List all events in a date range
+     *
+     * @param startDate The first date of the range in yyyy-MM-dd format
+     * @param endDate The last date of the range in yyyy-MM-dd format (inclusive)
+     * @return The events grouped by date, or a message indicating no events
+     */
+    @CacheableTool
+    @Tool(description = "List all events between two dates, inclusive (format: yyyy-MM-dd)")
+    public String eventsBetween(String startDate, String endDate) {
+        LocalDate start = parseDate(startDate);
+        LocalDate end = parseDate(endDate);
+        if (start == null || end == null) {
+            return invalidDate(start == null ? startDate : endDate);
+        }
+
+        List<EventStore.DayEvents> days = events.eventsBetween(start.toEpochDay(), end.toEpochDay());
+        if (days.isEmpty()) {
+            return "No events scheduled between " + startDate + " and " + endDate;
+        }
+
+        StringBuilder result = new StringBuilder("Events between " + startDate + " and " + endDate + ":\n");
+        for (EventStore.DayEvents day : days) {
+            result.append(LocalDate.ofEpochDay(day.epochDay()).format(DATE_FORMAT))
+                    .append(": ").append(String.join("; ", day.events())).append("\n");
+        }
+        return result.toString();
+    }
+
+    /**
+     * Find dates without any scheduled events
+     *
+     * @param startDate The first date to consider in yyyy-MM-dd format
+     * @param endDate The last date to consider in yyyy-MM-dd format (inclusive)
+     * @return The free dates, up to a month's worth
+     */
+    @CacheableTool
+    @Tool(description = "Find free dates with no scheduled events between two dates, inclusive (format: yyyy-MM-dd)")
+    public String findFreeDays(String startDate, String endDate) {
+        LocalDate start = parseDate(startDate);
+        LocalDate end = parseDate(endDate);
+        if (start == null || end == null) {
+            return invalidDate(start == null ? startDate : endDate);
+        }
+
+        long[] freeDays = events.freeDays(start.toEpochDay(), end.toEpochDay(), MAX_FREE_DAYS);
+        if (freeDays.length == 0) {
+            return "No free dates between " + startDate + " and " + endDate;
+        }
+
+        StringBuilder result = new StringBuilder("Free dates between " + startDate + " and " + endDate + ": ");
+        for (int i = 0; i < freeDays.length; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(LocalDate.ofEpochDay(freeDays[i]).format(DATE_FORMAT));
+        }
+        return result.toString();
+    }
+
+    private static LocalDate parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim(), DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String invalidDate(String date) {
+        return "Invalid date '" + date + "'. Please use the format yyyy-MM-dd.";
+    }
 }
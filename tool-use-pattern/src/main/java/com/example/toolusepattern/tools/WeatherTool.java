@@ -1,13 +1,15 @@
 package com.example.toolusepattern.tools;
 
+import com.example.toolusepattern.weather.WeatherCache;
+import com.example.toolusepattern.weather.WeatherReport;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Optional;
 
 /**
  * Weather tool that provides current weather information for different locations
@@ -15,33 +17,13 @@ import java.util.Map;
 @Component
 public class WeatherTool {
 
-    // Simulated weather data store
-    private final Map<String, Map<String, Object>> weatherData;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final WeatherCache weatherCache;
     
-    public WeatherTool() {
-        // Initialize with some sample weather data
-        weatherData = new HashMap<>();
-        
-        Map<String, Object> nycWeather = new HashMap<>();
-        nycWeather.put("temperature", 72);
-        nycWeather.put("condition", "Partly Cloudy");
-        nycWeather.put("humidity", 65);
-        nycWeather.put("windSpeed", 8);
-        weatherData.put("new york", nycWeather);
-        
-        Map<String, Object> londonWeather = new HashMap<>();
-        londonWeather.put("temperature", 58);
-        londonWeather.put("condition", "Rainy");
-        londonWeather.put("humidity", 80);
-        londonWeather.put("windSpeed", 12);
-        weatherData.put("london", londonWeather);
-        
-        Map<String, Object> tokyoWeather = new HashMap<>();
-        tokyoWeather.put("temperature", 68);
-        tokyoWeather.put("condition", "Sunny");
-        tokyoWeather.put("humidity", 45);
-        tokyoWeather.put("windSpeed", 5);
-        weatherData.put("tokyo", tokyoWeather);
+    public WeatherTool(WeatherCache weatherCache) {
+        this.weatherCache = weatherCache;
     }
 
     /**
@@ -52,28 +34,28 @@ public class WeatherTool {
      */
     @Tool(description = "Get current weather information for a specified location")
     public String getCurrentWeather(String location) {
-        String normalizedLocation = location.toLowerCase().trim();
-        
-        if (!weatherData.containsKey(normalizedLocation)) {
-            return "Weather information for " + location + " is not available.";
-        }
-        
-        Map<String, Object> weather = weatherData.get(normalizedLocation);
-        
-        LocalDateTime now = LocalDateTime.now(ZoneId.systemDefault());
-        String timestamp = now.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        return findCurrentWeather(location)
+                .orElse("Weather information for " + location + " is not available.");
+    }
+
+    /**
+     * Get current weather for a specified location, if the location is known
+     * 
+     * @param location The location to get weather for
+     * @return Weather information as a formatted string, or empty if the location is unknown
+     */
+    public Optional<String> findCurrentWeather(String location) {
+        String normalizedLocation = location.toLowerCase(Locale.ROOT).trim();
         
-        return String.format(
-            "Weather for %s (as of %s):\n" +
-            "Temperature: %d°F\n" +
-            "Condition: %s\n" +
-            "Humidity: %d%%\n" +
-            "Wind Speed: %d mph",
-            location, timestamp,
-            weather.get("temperature"),
-            weather.get("condition"),
-            weather.get("humidity"),
-            weather.get("windSpeed")
-        );
+        return weatherCache.get(normalizedLocation).map(weather -> format(location, weather));
+    }
+
+    private static String format(String location, WeatherReport weather) {
+        return "Weather for " + location
+                + " (as of " + TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(weather.observedAtEpochMilli())) + "):\n"
+                + "Temperature: " + weather.temperatureF() + "°F\n"
+                + "Condition: " + weather.condition() + "\n"
+                + "Humidity: " + weather.humidity() + "%\n"
+                + "Wind Speed: " + weather.windSpeedMph() + " mph";
     }
 }
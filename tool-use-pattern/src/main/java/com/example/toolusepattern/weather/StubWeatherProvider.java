@@ -0,0 +1,32 @@
+package com.example.toolusepattern.weather;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Local weather provider with fixed sample data, used when no real provider is configured
+ */
+@Component
+public class StubWeatherProvider implements WeatherProvider {
+
+    // Simulated weather data store
+    private final Map<String, Sample> weatherData = Map.of(
+            "new york", new Sample(72, "Partly Cloudy", 65, 8),
+            "london", new Sample(58, "Rainy", 80, 12),
+            "tokyo", new Sample(68, "Sunny", 45, 5));
+
+    @Override
+    public Optional<WeatherReport> fetch(String location) {
+        Sample sample = weatherData.get(location);
+        if (sample == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new WeatherReport(sample.temperatureF, sample.condition, sample.humidity,
+                sample.windSpeedMph, System.currentTimeMillis()));
+    }
+
+    private record Sample(int temperatureF, String condition, int humidity, int windSpeedMph) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.toolusepattern.weather;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-location TTL cache in front of the {@link WeatherProvider} with single-flight request coalescing.
+ * Concurrent requests for a location that is not cached share one provider fetch instead of each starting their own.
+ * <p>
+ * Locations come from users and the model, so the cache is bounded: at most {@code weather.cache.max-entries}
+ * locations are kept, the least recently used being evicted first, and expired entries are swept out periodically.
+ * Unknown locations are remembered only for the shorter {@code weather.cache.negative-ttl}.
+ */
+@Component
+public class WeatherCache {
+
+    private final WeatherProvider provider;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Map<String, Entry> entries;
+    private long lastSweepNanos = System.nanoTime();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder coalescedWaits = new LongAdder();
+    private final LongAdder providerFetches = new LongAdder();
+    private final LongAdder providerFailures = new LongAdder();
+    private final LongAdder providerLatencyNanos = new LongAdder();
+    private final LongAccumulator maxProviderLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder evictions = new LongAdder();
+
+    public WeatherCache(WeatherProvider provider,
+                        @Value("${weather.cache.ttl:PT5M}") Duration ttl,
+                        @Value("${weather.cache.negative-ttl:PT30S}") Duration negativeTtl,
+                        @Value("${weather.cache.max-entries:10000}") int maxEntries) {
+        this.provider = provider;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the current weather for a location, fetching it from the provider only if no fresh report is cached
+     *
+     * @param location The location, already lower-cased and trimmed
+     * @return The current weather, or empty if the location is unknown
+     */
+    public Optional<WeatherReport> get(String location) {
+        requests.increment();
+        long now = System.nanoTime();
+
+        // Only map operations run under the lock; the provider fetch and waiting on it happen outside
+        Entry mine = new Entry();
+        Entry winner;
+        synchronized (entries) {
+            sweepExpired(now);
+            winner = entries.get(location);
+            if (winner == null || winner.isExpired(now)) {
+                entries.put(location, mine);
+                winner = mine;
+            }
+        }
+        if (winner != mine) {
+            return await(winner);
+        }
+
+        providerFetches.increment();
+        long start = System.nanoTime();
+        try {
+            Optional<WeatherReport> report = provider.fetch(location);
+            recordLatency(start);
+            long ttl = report.isPresent() ? ttlNanos : negativeTtlNanos;
+            if (ttl <= 0) {
+                remove(location, mine);
+            }
+            mine.expiresAt = System.nanoTime() + ttl;
+            mine.result.complete(report);
+            return report;
+        } catch (RuntimeException e) {
+            recordLatency(start);
+            providerFailures.increment();
+            // Drop the failed entry so the next request retries instead of caching the failure
+            remove(location, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Get a snapshot of the cache and provider statistics
+     *
+     * @return The current statistics
+     */
+    public WeatherStats stats() {
+        long fetches = providerFetches.sum();
+        double averageMs = fetches == 0 ? 0.0 : providerLatencyNanos.sum() / 1_000_000.0 / fetches;
+        int cachedLocations;
+        synchronized (entries) {
+            cachedLocations = entries.size();
+        }
+        return new WeatherStats(requests.sum(), cacheHits.sum(), coalescedWaits.sum(), fetches,
+                providerFailures.sum(), averageMs, maxProviderLatencyNanos.get() / 1_000_000.0,
+                cachedLocations, evictions.sum());
+    }
+
+    private void remove(String location, Entry entry) {
+        synchronized (entries) {
+            if (entries.get(location) == entry) {
+                entries.remove(location);
+            }
+        }
+    }
+
+    /**
+     * Drop expired entries, at most once per negative TTL, so the sweep cost is amortized over many requests.
+     * Called with the lock held.
+     */
+    private void sweepExpired(long now) {
+        if (now - lastSweepNanos < Math.max(negativeTtlNanos, 1_000_000_000L)) {
+            return;
+        }
+        lastSweepNanos = now;
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private Optional<WeatherReport> await(Entry entry) {
+        if (entry.result.isDone()) {
+            cacheHits.increment();
+        } else {
+            coalescedWaits.increment();
+        }
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void recordLatency(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        providerLatencyNanos.add(elapsed);
+        maxProviderLatencyNanos.accumulate(elapsed);
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Optional<WeatherReport>> result = new CompletableFuture<>();
+        // Written before the result completes, so readers that see a completed result see the expiry
+        volatile long expiresAt;
+
+        boolean isExpired(long now) {
+            return result.isDone() && (result.isCompletedExceptionally() || now - expiresAt >= 0);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.toolusepattern.weather;
+
+import java.util.Optional;
+
+/**
+ * Source of current weather observations.
+ * Implement this interface and register it as a {@code @Primary} bean to replace the built-in {@link StubWeatherProvider}.
+ */
+public interface WeatherProvider {
+
+    /**
+     * Fetch the current weather for a location
+     *
+     * @param location The location, already lower-cased and trimmed
+     * @return The current weather, or empty if the location is unknown to the provider
+     */
+    Optional<WeatherReport> fetch(String location);
+}
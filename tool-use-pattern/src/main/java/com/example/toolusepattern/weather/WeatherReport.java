@@ -0,0 +1,14 @@
+package com.example.toolusepattern.weather;
+
+/**
+ * Current weather for one location, held in primitive fields
+ *
+ * @param temperatureF Temperature in degrees Fahrenheit
+ * @param condition Short description of the sky, e.g. "Sunny"
+ * @param humidity Relative humidity in percent
+ * @param windSpeedMph Wind speed in miles per hour
+ * @param observedAtEpochMilli When the provider produced the observation
+ */
+public record WeatherReport(int temperatureF, String condition, int humidity, int windSpeedMph,
+                            long observedAtEpochMilli) {
+}
@@ -0,0 +1,79 @@
+package com.example.toolusepattern.weather;
+
+/**
+ * Point-in-time statistics of the weather cache and the provider behind it
+ */
+public class WeatherStats {
+
+    private final long requests;
+    private final long cacheHits;
+    private final long coalescedWaits;
+    private final long providerFetches;
+    private final long providerFailures;
+    private final double averageProviderLatencyMs;
+    private final double maxProviderLatencyMs;
+    private final int cachedLocations;
+    private final long evictions;
+
+    public WeatherStats(long requests, long cacheHits, long coalescedWaits, long providerFetches,
+                        long providerFailures, double averageProviderLatencyMs, double maxProviderLatencyMs,
+                        int cachedLocations, long evictions) {
+        this.requests = requests;
+        this.cacheHits = cacheHits;
+        this.coalescedWaits = coalescedWaits;
+        this.providerFetches = providerFetches;
+        this.providerFailures = providerFailures;
+        this.averageProviderLatencyMs = averageProviderLatencyMs;
+        this.maxProviderLatencyMs = maxProviderLatencyMs;
+        this.cachedLocations = cachedLocations;
+        this.evictions = evictions;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return Requests answered from a fresh cached report
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * @return Requests that waited on a fetch already in flight for the same location
+     */
+    public long getCoalescedWaits() {
+        return coalescedWaits;
+    }
+
+    public long getProviderFetches() {
+        return providerFetches;
+    }
+
+    public long getProviderFailures() {
+        return providerFailures;
+    }
+
+    public double getAverageProviderLatencyMs() {
+        return averageProviderLatencyMs;
+    }
+
+    public double getMaxProviderLatencyMs() {
+        return maxProviderLatencyMs;
+    }
+
+    /**
+     * @return Locations currently cached, including fetches in flight
+     */
+    public int getCachedLocations() {
+        return cachedLocations;
+    }
+
+    /**
+     * @return Locations evicted because the cache was full
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+}